@@ -0,0 +1,50 @@
+package com.backend.tessera.benchmark;
+
+import com.backend.tessera.model.AccountStatus;
+import com.backend.tessera.model.Role;
+import com.backend.tessera.model.User;
+import com.backend.tessera.security.InMemoryJwtSigningKeys;
+import com.backend.tessera.security.JwtKeyRing;
+import com.backend.tessera.security.JwtUtil;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Objetos montados fora do contexto Spring para os benchmarks do caminho de autenticação
+ */
+final class BenchmarkFixtures {
+
+    static final String SECRET = "ZThiYmM2NTZiNmQ0YmNhMmI3ZTlmMjkyZDE4MDgyYTBhZjExNGJkZjJiMGY4ZTk4ZjlhZWZmZmFkOWY3ZTYwOA==";
+
+    private BenchmarkFixtures() {
+    }
+
+    static JwtUtil jwtUtil() {
+        return jwtUtil("HS256");
+    }
+
+    static JwtUtil jwtUtil(String algorithm) {
+        JwtKeyRing keyRing = new JwtKeyRing();
+        ReflectionTestUtils.setField(keyRing, "keyRepository", InMemoryJwtSigningKeys.repository());
+        ReflectionTestUtils.setField(keyRing, "secretString", SECRET);
+        ReflectionTestUtils.setField(keyRing, "jwtExpirationInMs", 3600000L);
+        ReflectionTestUtils.setField(keyRing, "algorithm", algorithm);
+        ReflectionTestUtils.setField(keyRing, "publishAheadMs", 0L);
+        ReflectionTestUtils.setField(keyRing, "rotationIntervalMs", 86400000L);
+        ReflectionTestUtils.setField(keyRing, "acceptLegacyHmac", true);
+        keyRing.init();
+
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "jwtExpirationInMs", 3600000L);
+        ReflectionTestUtils.setField(jwtUtil, "keyRing", keyRing);
+        jwtUtil.init();
+        return jwtUtil;
+    }
+
+    static User activeUser() {
+        User user = new User("professorbench", "hash", Role.PROFESSOR);
+        user.setId(1L);
+        user.setStatus(AccountStatus.ATIVO);
+        user.setEnabled(true);
+        return user;
+    }
+}
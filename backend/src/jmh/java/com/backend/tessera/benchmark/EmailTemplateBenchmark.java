@@ -0,0 +1,121 @@
+package com.backend.tessera.benchmark;
+
+import com.backend.tessera.service.EmailTemplateEngine;
+import com.backend.tessera.service.EmailTemplateEngine.RenderedEmail;
+import jakarta.activation.DataHandler;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import jakarta.mail.util.ByteArrayDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mail.javamail.MimeMessageHelper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Montagem do email de verificação: renderização e codificação MIME da mensagem, sem envio.
+ *
+ * concatenation reproduz a implementação anterior (HTML concatenado a cada envio e multipart montado pelo
+ * MimeMessageHelper); template usa o EmailTemplateEngine e uma mensagem de parte única. As variantes
+ * *Render medem apenas a geração do HTML.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmailTemplateBenchmark {
+
+    private static final String BASE_URL = "http://localhost:4200";
+
+    private EmailTemplateEngine engine;
+    private Session session;
+    private String token;
+    private final Locale locale = new Locale("pt", "BR");
+
+    @Setup
+    public void setUp() throws IOException {
+        engine = new EmailTemplateEngine();
+        engine.init();
+        session = Session.getInstance(new Properties());
+        token = UUID.randomUUID().toString();
+    }
+
+    @Benchmark
+    public String concatenationRender() {
+        return legacyHtml(verificationUrl());
+    }
+
+    @Benchmark
+    public RenderedEmail templateRender() {
+        return engine.render("email-verification", locale, Map.of("url", verificationUrl()));
+    }
+
+    @Benchmark
+    public void concatenation(Blackhole blackhole) throws MessagingException, IOException {
+        MimeMessage message = new MimeMessage(session);
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+        helper.setFrom("noreply@tessera.local");
+        helper.setTo("aluno@tessera.local");
+        helper.setSubject("Verificação de Email - Sistema Acadêmico");
+        helper.setText(legacyHtml(verificationUrl()), true);
+        message.saveChanges();
+        message.writeTo(OutputStream.nullOutputStream());
+        blackhole.consume(message);
+    }
+
+    @Benchmark
+    public void template(Blackhole blackhole) throws MessagingException, IOException {
+        RenderedEmail email = engine.render("email-verification", locale, Map.of("url", verificationUrl()));
+        MimeMessage message = new MimeMessage(session);
+        message.setFrom(new InternetAddress("noreply@tessera.local"));
+        message.setRecipient(Message.RecipientType.TO, new InternetAddress("aluno@tessera.local"));
+        message.setSubject(email.getSubject(), "UTF-8");
+        message.setDataHandler(new DataHandler(new ByteArrayDataSource(email.getBody(), "text/html; charset=UTF-8")));
+        message.saveChanges();
+        message.writeTo(OutputStream.nullOutputStream());
+        blackhole.consume(message);
+    }
+
+    private String verificationUrl() {
+        return BASE_URL + "/auth/verify-email?token=" + URLEncoder.encode(token, StandardCharsets.UTF_8);
+    }
+
+    private static String legacyHtml(String verificationUrl) {
+        return "<div style='font-family: Arial, sans-serif; color: #333;'>"
+                + "<h2 style='color: #1976d2;'>Verificação de Email</h2>"
+                + "<p>Olá,</p>"
+                + "<p>Obrigado por se cadastrar no Sistema Acadêmico. Para completar seu cadastro, precisamos verificar seu email.</p>"
+                + "<p>Por favor, clique no botão abaixo para verificar seu email:</p>"
+                + "<p style='text-align: center;'>"
+                + "<a href='" + verificationUrl + "' style='display: inline-block; background-color: #4caf50; color: white; padding: 10px 20px; "
+                + "text-decoration: none; border-radius: 5px; font-weight: bold;'>Verificar Email</a>"
+                + "</p>"
+                + "<p>Ou copie e cole o seguinte link no seu navegador:</p>"
+                + "<p><a href='" + verificationUrl + "'>" + verificationUrl + "</a></p>"
+                + "<p>Este link expirará em 24 horas.</p>"
+                + "<p>Atenciosamente,<br>Equipe do Sistema Acadêmico</p>"
+                + "</div>";
+    }
+}
@@ -0,0 +1,104 @@
+package com.backend.tessera.benchmark;
+
+import com.backend.tessera.model.User;
+import com.backend.tessera.repository.UserRepository;
+import com.backend.tessera.security.JwtAuthenticationFilter;
+import com.backend.tessera.security.JwtUtil;
+import com.backend.tessera.security.TokenEpochRegistry;
+import com.backend.tessera.security.VerifiedTokenCache;
+import com.backend.tessera.service.UserCacheService;
+import com.backend.tessera.service.UserDetailsServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JwtAuthenticationFilter sobre requisições simuladas, sem contexto Spring nem banco.
+ *
+ * O parâmetro mode escolhe entre o principal montado pelos claims (stateless) e o usuário vindo do
+ * UserCacheService (lookup); cache liga ou desliga o VerifiedTokenCache.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtAuthenticationFilterBenchmark {
+
+    @Param({"lookup", "stateless"})
+    public String mode;
+
+    @Param({"true", "false"})
+    public boolean cache;
+
+    private JwtAuthenticationFilter filter;
+    private MockHttpServletRequest request;
+    private final FilterChain chain = (req, res) -> { };
+
+    @Setup
+    public void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        JwtUtil jwtUtil = BenchmarkFixtures.jwtUtil();
+        User user = BenchmarkFixtures.activeUser();
+
+        UserRepository userRepository = Mockito.mock(UserRepository.class);
+        Mockito.when(userRepository.findByUsername(user.getUsername())).thenReturn(Optional.of(user));
+        UserCacheService userCacheService = new UserCacheService();
+        ReflectionTestUtils.setField(userCacheService, "userRepository", userRepository);
+        ReflectionTestUtils.setField(userCacheService, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(userCacheService, "maxSize", 10000L);
+        ReflectionTestUtils.setField(userCacheService, "ttlMs", 300000L);
+        ReflectionTestUtils.setField(userCacheService, "negativeMaxSize", 10000L);
+        ReflectionTestUtils.setField(userCacheService, "negativeTtlMs", 30000L);
+        userCacheService.init();
+
+        UserDetailsServiceImpl userDetailsService = new UserDetailsServiceImpl();
+        ReflectionTestUtils.setField(userDetailsService, "userCacheService", userCacheService);
+
+        VerifiedTokenCache verifiedTokenCache = new VerifiedTokenCache();
+        ReflectionTestUtils.setField(verifiedTokenCache, "jwtUtil", jwtUtil);
+        ReflectionTestUtils.setField(verifiedTokenCache, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(verifiedTokenCache, "enabled", cache);
+        ReflectionTestUtils.setField(verifiedTokenCache, "maxSize", 10000L);
+        verifiedTokenCache.init();
+
+        filter = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(filter, "jwtUtil", jwtUtil);
+        ReflectionTestUtils.setField(filter, "verifiedTokenCache", verifiedTokenCache);
+        ReflectionTestUtils.setField(filter, "userDetailsService", userDetailsService);
+        ReflectionTestUtils.setField(filter, "tokenEpochRegistry", new TokenEpochRegistry());
+        ReflectionTestUtils.setField(filter, "statelessEnabled", "stateless".equals(mode));
+
+        request = new MockHttpServletRequest("GET", "/api/dashboard");
+        request.addHeader("Authorization", "Bearer " + jwtUtil.generateToken(user));
+    }
+
+    @Benchmark
+    public Object authenticateRequest() throws Exception {
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        // OncePerRequestFilter marca a requisição como filtrada; limpar para a próxima invocação
+        request.removeAttribute(filter.getClass().getName() + ".FILTERED");
+        Object authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+}
@@ -0,0 +1,95 @@
+package com.backend.tessera.benchmark;
+
+import com.backend.tessera.service.SmtpStandIn;
+import com.backend.tessera.service.SmtpTransportPool;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vazão de envio de emails contra um servidor SMTP em processo (SmtpStandIn).
+ *
+ * perConnection usa JavaMailSender.send, que abre uma conexão por mensagem; pooled usa o SmtpTransportPool,
+ * que reutiliza as conexões. connectDelayMs simula o custo de abrir uma sessão SMTP com TLS.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class SmtpDeliveryBenchmark {
+
+    @Param({"0", "5"})
+    public long connectDelayMs;
+
+    private SmtpStandIn server;
+    private JavaMailSenderImpl mailSender;
+    private SmtpTransportPool pool;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        server = new SmtpStandIn(connectDelayMs);
+
+        mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("127.0.0.1");
+        mailSender.setPort(server.port());
+
+        pool = new SmtpTransportPool();
+        ReflectionTestUtils.setField(pool, "mailSender", mailSender);
+        ReflectionTestUtils.setField(pool, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(pool, "size", 4);
+        ReflectionTestUtils.setField(pool, "maxMessagesPerConnection", 100);
+        ReflectionTestUtils.setField(pool, "idleTimeoutMs", 60000L);
+        ReflectionTestUtils.setField(pool, "validateAfterMs", 5000L);
+        ReflectionTestUtils.setField(pool, "borrowTimeoutMs", 30000L);
+        pool.init();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        pool.shutdown();
+        server.close();
+    }
+
+    @Benchmark
+    public void perConnection() throws MessagingException {
+        mailSender.send(newMessage());
+    }
+
+    @Benchmark
+    public void pooled() throws MessagingException {
+        pool.send(newMessage());
+    }
+
+    private MimeMessage newMessage() throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+        helper.setFrom("noreply@tessera.local");
+        helper.setTo("aluno@tessera.local");
+        helper.setSubject("Verificação de Email - Sistema Acadêmico");
+        helper.setText("<p>Olá, confirme seu email.</p>", true);
+        return message;
+    }
+}
@@ -0,0 +1,37 @@
+package com.backend.tessera.benchmark;
+
+import com.backend.tessera.validation.StrongPasswordValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validação da política de senhas (@StrongPassword)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StrongPasswordValidatorBenchmark {
+
+    @Param({"Senha@Forte123", "senhafracasemdigitos", "Curta1!"})
+    public String password;
+
+    private final StrongPasswordValidator validator = new StrongPasswordValidator();
+
+    @Benchmark
+    public boolean isValid() {
+        return validator.isValid(password, null);
+    }
+}
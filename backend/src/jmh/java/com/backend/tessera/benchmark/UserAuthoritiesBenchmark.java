@@ -0,0 +1,40 @@
+package com.backend.tessera.benchmark;
+
+import com.backend.tessera.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construção das autoridades do usuário (User.getAuthorities), chamada em todo login e requisição autenticada
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserAuthoritiesBenchmark {
+
+    private User user;
+
+    @Setup
+    public void setUp() {
+        user = BenchmarkFixtures.activeUser();
+    }
+
+    @Benchmark
+    public Collection<?> getAuthorities() {
+        return user.getAuthorities();
+    }
+}
@@ -1,15 +1,80 @@
 package com.backend.tessera.config;
 
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Encoder de senhas com custo calibrado no startup.
+ *
+ * O custo do BCrypt é escolhido medindo o tempo de hashing na máquina atual: usa-se o maior custo cujo
+ * tempo estimado não ultrapassa app.security.password.target-ms. Os hashes são gravados com o prefixo
+ * {bcrypt}; hashes antigos sem prefixo continuam válidos e, assim como hashes com custo menor que o
+ * atual, são regravados após um login bem-sucedido (ver PasswordUpgradeService).
+ */
 @Configuration
 public class PasswordEncoderConfig {
+    private static final Logger logger = LoggerConfig.getLogger(PasswordEncoderConfig.class);
+
+    private static final String ENCODING_ID = "bcrypt";
+    private static final int CALIBRATION_SAMPLES = 3;
+
+    @Value("${app.security.password.target-ms:100}")
+    private long targetMs;
+
+    @Value("${app.security.password.min-strength:10}")
+    private int minStrength;
+
+    @Value("${app.security.password.max-strength:14}")
+    private int maxStrength;
+
+    // Valor > 0 fixa o custo e desativa a calibração
+    @Value("${app.security.password.strength:0}")
+    private int fixedStrength;
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        int strength = fixedStrength > 0 ? fixedStrength : calibrateStrength();
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(strength);
+
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(ENCODING_ID, Map.of(ENCODING_ID, bcrypt));
+        // Hashes legados gravados sem o prefixo {bcrypt}
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return encoder;
+    }
+
+    /**
+     * Mede o hashing no custo mínimo e extrapola: cada incremento de custo dobra o tempo do BCrypt
+     */
+    private int calibrateStrength() {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(minStrength);
+        probe.encode("calibracao"); // aquecimento
+
+        long[] samples = new long[CALIBRATION_SAMPLES];
+        for (int i = 0; i < CALIBRATION_SAMPLES; i++) {
+            long start = System.nanoTime();
+            probe.encode("calibracao");
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        double baseMs = samples[CALIBRATION_SAMPLES / 2] / 1_000_000.0;
+
+        int strength = minStrength;
+        double estimatedMs = baseMs;
+        while (strength < maxStrength && estimatedMs * 2 <= targetMs) {
+            strength++;
+            estimatedMs *= 2;
+        }
+
+        logger.info("Custo do BCrypt calibrado: {} (~{} ms por hash; alvo: {} ms; custo {} levou {} ms)",
+                strength, Math.round(estimatedMs), targetMs, minStrength, Math.round(baseMs));
+        return strength;
     }
-}
\ No newline at end of file
+}
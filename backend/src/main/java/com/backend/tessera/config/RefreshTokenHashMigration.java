@@ -0,0 +1,157 @@
+package com.backend.tessera.config;
+
+import com.backend.tessera.model.RefreshToken;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Migra os refresh tokens gravados em claro (coluna legada token) para o hash SHA-256 em token_hash.
+ *
+ * A migração é feita em duas versões para permitir um deploy gradual (instâncias da versão anterior ainda leem
+ * e gravam a coluna token):
+ *
+ * 1. Esta versão torna a coluna legada anulável (as linhas novas só têm token_hash) e converte em lotes as linhas
+ *    sem hash, no startup e a cada app.refresh-token.hash-migration.interval, para alcançar os tokens emitidos
+ *    pelas instâncias antigas durante o deploy. A conversão é idempotente: instâncias concorrentes gravam o
+ *    mesmo hash.
+ * 2. Depois que nenhuma instância da versão anterior estiver no ar, app.refresh-token.hash-migration.drop-legacy-column
+ *    remove a coluna (na versão seguinte ou por configuração).
+ *
+ * Os tokens já emitidos continuam válidos, pois o cliente envia o mesmo valor cujo hash foi gravado.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class RefreshTokenHashMigration {
+    private static final Logger logger = LoggerConfig.getLogger(RefreshTokenHashMigration.class);
+
+    private static final String TABLE = "refresh_tokens";
+    private static final String LEGACY_COLUMN = "token";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${app.refresh-token.hash-migration.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.refresh-token.hash-migration.batch-size:1000}")
+    private int batchSize;
+
+    // Só ligar quando todas as instâncias já rodam a versão que grava token_hash
+    @Value("${app.refresh-token.hash-migration.drop-legacy-column:false}")
+    private boolean dropLegacyColumn;
+
+    private volatile boolean legacyColumnPresent;
+
+    @PostConstruct
+    public void migrate() {
+        if (!enabled) {
+            return;
+        }
+        Boolean nullable = legacyColumnNullable();
+        legacyColumnPresent = nullable != null;
+        if (!legacyColumnPresent) {
+            return;
+        }
+        if (!nullable) {
+            makeLegacyColumnNullable();
+        }
+        backfill();
+        if (dropLegacyColumn) {
+            dropLegacyColumn();
+        }
+    }
+
+    /**
+     * Converte as linhas gravadas sem hash por instâncias da versão anterior enquanto a coluna legada existir
+     */
+    @Scheduled(initialDelayString = "${app.refresh-token.hash-migration.interval:60000}",
+            fixedDelayString = "${app.refresh-token.hash-migration.interval:60000}")
+    public void backfillPending() {
+        if (enabled && legacyColumnPresent) {
+            backfill();
+        }
+    }
+
+    private void backfill() {
+        long migrated = 0;
+        List<Map<String, Object>> rows;
+        do {
+            rows = jdbcTemplate.queryForList("SELECT id, " + LEGACY_COLUMN + " FROM " + TABLE +
+                    " WHERE token_hash IS NULL AND " + LEGACY_COLUMN + " IS NOT NULL LIMIT " + batchSize);
+            if (!rows.isEmpty()) {
+                jdbcTemplate.batchUpdate("UPDATE " + TABLE + " SET token_hash = ? WHERE id = ? AND token_hash IS NULL",
+                        rows, rows.size(), (ps, row) -> {
+                            ps.setBytes(1, RefreshToken.hashToken((String) row.get(LEGACY_COLUMN)));
+                            ps.setLong(2, ((Number) row.get("id")).longValue());
+                        });
+                migrated += rows.size();
+            }
+        } while (rows.size() == batchSize);
+        if (migrated > 0) {
+            logger.info("Migração de refresh tokens: {} tokens legados convertidos para token_hash", migrated);
+        }
+    }
+
+    private void makeLegacyColumnNullable() {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName()).toLowerCase(Locale.ROOT);
+        String ddl = product.contains("mysql") || product.contains("mariadb")
+                ? "ALTER TABLE " + TABLE + " MODIFY COLUMN " + LEGACY_COLUMN + " VARCHAR(255) NULL"
+                : "ALTER TABLE " + TABLE + " ALTER COLUMN " + LEGACY_COLUMN + " DROP NOT NULL";
+        try {
+            jdbcTemplate.execute(ddl);
+            logger.info("Coluna legada {}.{} agora aceita nulo", TABLE, LEGACY_COLUMN);
+        } catch (DataAccessException e) {
+            // Outra instância pode ter alterado a coluna ao mesmo tempo
+            if (!Boolean.TRUE.equals(legacyColumnNullable())) {
+                throw e;
+            }
+        }
+    }
+
+    private void dropLegacyColumn() {
+        try {
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " DROP COLUMN " + LEGACY_COLUMN);
+            logger.info("Coluna legada {}.{} removida", TABLE, LEGACY_COLUMN);
+        } catch (DataAccessException e) {
+            // Outra instância pode ter removido a coluna ao mesmo tempo
+            if (legacyColumnNullable() != null) {
+                throw e;
+            }
+        }
+        legacyColumnPresent = false;
+    }
+
+    /**
+     * @return se a coluna legada aceita nulo, ou null se ela não existe
+     */
+    private Boolean legacyColumnNullable() {
+        return jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (String table : List.of(TABLE, TABLE.toUpperCase(Locale.ROOT))) {
+                try (ResultSet columns = metaData.getColumns(connection.getCatalog(), null, table, null)) {
+                    while (columns.next()) {
+                        if (LEGACY_COLUMN.equalsIgnoreCase(columns.getString("COLUMN_NAME"))) {
+                            return columns.getInt("NULLABLE") != DatabaseMetaData.columnNoNulls;
+                        }
+                    }
+                }
+            }
+            return null;
+        });
+    }
+}
@@ -45,6 +45,9 @@ public class SecurityConfig {
                                  "/api/auth/password/**",
                                  "/api/auth/email/**").permitAll()
                 .requestMatchers("/actuator/**").permitAll() 
+                .requestMatchers(HttpMethod.GET, "/.well-known/jwks.json").permitAll()
+                // Autenticado pela chave interna no próprio controller
+                .requestMatchers(HttpMethod.POST, "/api/internal/tokens/introspect").permitAll()
                 .requestMatchers(HttpMethod.GET, "/api/dashboard/professor/**").hasRole("PROFESSOR")
                 .requestMatchers(HttpMethod.GET, "/api/dashboard/aluno/**").hasRole("ALUNO")
                 .anyRequest().authenticated()
@@ -0,0 +1,62 @@
+package com.backend.tessera.controller;
+
+import com.backend.tessera.config.LoggerConfig;
+import com.backend.tessera.dto.BroadcastJobResponse;
+import com.backend.tessera.dto.BroadcastRequest;
+import com.backend.tessera.model.BroadcastJob;
+import com.backend.tessera.service.BroadcastService;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.security.Principal;
+
+/**
+ * Comunicados por email para grupos de usuários (ver BroadcastService)
+ */
+@RestController
+@RequestMapping("/api/admin/broadcasts")
+@PreAuthorize("hasRole('ADMIN')")
+public class BroadcastController {
+    private static final Logger logger = LoggerConfig.getLogger(BroadcastController.class);
+
+    @Autowired
+    private BroadcastService broadcastService;
+
+    /**
+     * Cria um broadcast; o envio acontece em segundo plano e o progresso é consultado pelo id retornado
+     */
+    @PostMapping
+    public ResponseEntity<BroadcastJobResponse> create(@Valid @RequestBody BroadcastRequest request, Principal principal) {
+        BroadcastJob job = broadcastService.create(request, principal.getName());
+        logger.info("Broadcast {} solicitado por {}", job.getId(), principal.getName());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(BroadcastJobResponse.from(job));
+    }
+
+    @GetMapping
+    public ResponseEntity<Page<BroadcastJobResponse>> list(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(broadcastService.list(page, size).map(BroadcastJobResponse::from));
+    }
+
+    /**
+     * Progresso e vazão do broadcast
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<BroadcastJobResponse> get(@PathVariable Long id) {
+        return ResponseEntity.ok(BroadcastJobResponse.from(broadcastService.get(id)));
+    }
+
+    @PostMapping("/{id}/cancel")
+    public ResponseEntity<BroadcastJobResponse> cancel(@PathVariable Long id, Principal principal) {
+        BroadcastJob job = broadcastService.cancel(id);
+        logger.info("Broadcast {} cancelado por {}", id, principal.getName());
+        return ResponseEntity.ok(BroadcastJobResponse.from(job));
+    }
+}
@@ -0,0 +1,44 @@
+package com.backend.tessera.controller;
+
+import com.backend.tessera.config.LoggerConfig;
+import com.backend.tessera.security.JwtKeyRing;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publica as chaves públicas de assinatura dos access tokens (JWKS), para validação local por outros serviços
+ */
+@RestController
+public class JwksController {
+    private static final Logger logger = LoggerConfig.getLogger(JwksController.class);
+
+    @Autowired
+    private JwtKeyRing keyRing;
+
+    // Deve ser menor que jwt.signing.publish-ahead, para que uma chave nova chegue aos clientes antes de assinar
+    @Value("${jwt.jwks.max-age:300}")
+    private long maxAgeSeconds;
+
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, Object>> getJwks(
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        String etag = keyRing.jwksEtag();
+        CacheControl cacheControl = CacheControl.maxAge(maxAgeSeconds, TimeUnit.SECONDS).cachePublic();
+
+        if (etag.equals(ifNoneMatch)) {
+            logger.debug("JWKS não modificado (ETag {})", etag);
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(cacheControl).body(keyRing.jwks());
+    }
+}
@@ -2,23 +2,27 @@ package com.backend.tessera.controller;
 
 import com.backend.tessera.config.LoggerConfig;
 import com.backend.tessera.dto.*;
+import com.backend.tessera.exception.ServiceOverloadedException;
 import com.backend.tessera.model.AccountStatus;
 import com.backend.tessera.model.RefreshToken;
 import com.backend.tessera.model.User;
 import com.backend.tessera.repository.UserRepository;
 import com.backend.tessera.security.JwtUtil;
+import com.backend.tessera.security.LoginRateLimiter;
+import com.backend.tessera.security.ResolvedUserAuthenticationToken;
 import com.backend.tessera.service.RefreshTokenService;
+import com.backend.tessera.service.UserCacheService;
 import com.backend.tessera.service.UserDetailsServiceImpl;
 
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.DisabledException;
 import org.springframework.security.authentication.LockedException;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.GrantedAuthority;
@@ -51,14 +55,28 @@ public class LoginController {
     @Autowired
     private RefreshTokenService refreshTokenService;
 
+    @Autowired
+    private UserCacheService userCacheService;
+
+    @Autowired
+    private LoginRateLimiter loginRateLimiter;
+
     @PostMapping("/login")
     public ResponseEntity<?> authenticateUser(
             @Valid @RequestBody AuthRequest authRequest,
             HttpServletRequest request) {
+        // Limite de tentativas verificado antes de qualquer consulta ao banco ou hashing
+        long retryAfterSeconds = loginRateLimiter.tryAcquire(authRequest.getUsername(), request.getRemoteAddr());
+        if (retryAfterSeconds > 0) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                    .body(new MessageResponse("Muitas tentativas de login. Tente novamente mais tarde."));
+        }
+
         try {
             logger.debug("Tentando autenticar usuário: {}", authRequest.getUsername());
             
-            Optional<User> userOpt = userRepository.findByUsername(authRequest.getUsername());
+            Optional<User> userOpt = userCacheService.findByUsername(authRequest.getUsername());
             if (userOpt.isPresent()) {
                 User user = userOpt.get();
                 
@@ -81,27 +99,28 @@ public class LoginController {
                 }
             }
             
+            // O usuário buscado acima segue por autenticação, emissão do JWT e criação do refresh token
             Authentication authentication = authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(authRequest.getUsername(), authRequest.getPassword())
+                    new ResolvedUserAuthenticationToken(authRequest.getUsername(), authRequest.getPassword(),
+                            userOpt.orElse(null))
             );
             
             logger.info("Autenticação bem-sucedida para: {}", authRequest.getUsername());
             
-            final UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-            logger.debug("Detalhes do usuário carregados: {}", userDetails.getUsername());
-            logger.debug("Autoridades: {}", userDetails.getAuthorities());
+            final User user = (User) authentication.getPrincipal();
+            logger.debug("Detalhes do usuário carregados: {}", user.getUsername());
+            logger.debug("Autoridades: {}", user.getAuthorities());
             
             // Gerar access token
-            final String accessToken = jwtUtil.generateToken(userDetails);
-            logger.debug("Token gerado para usuário: {}", userDetails.getUsername());
+            final String accessToken = jwtUtil.generateToken(user);
+            logger.debug("Token gerado para usuário: {}", user.getUsername());
             
             // Criar um refresh token
             String userAgent = request.getHeader("User-Agent");
             String ipAddress = request.getRemoteAddr();
-            RefreshToken refreshToken = refreshTokenService.createRefreshToken(
-                    userDetails.getUsername(), userAgent, ipAddress);
+            RefreshToken refreshToken = refreshTokenService.createRefreshToken(user, userAgent, ipAddress);
             
-            Collection<String> roles = userDetails.getAuthorities().stream()
+            Collection<String> roles = user.getAuthorities().stream()
                                      .map(GrantedAuthority::getAuthority)
                                      .map(s -> s.startsWith("ROLE_") ? s.substring(5) : s)
                                      .collect(Collectors.toList());
@@ -110,7 +129,7 @@ public class LoginController {
             
             // Resposta com access token e refresh token
             AuthResponse response = new AuthResponse(accessToken, refreshToken.getToken(), 
-                                                   userDetails.getUsername(), roles);
+                                                   user.getUsername(), roles);
             return ResponseEntity.ok(response);
 
         } catch (BadCredentialsException e) {
@@ -129,6 +148,9 @@ public class LoginController {
             logger.warn("Erro de autenticação para: {} - {}", authRequest.getUsername(), e.getMessage());
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                    .body(new MessageResponse("Erro de autenticação: " + e.getMessage()));
+        } catch (ServiceOverloadedException e) {
+            // Tratada pelo GlobalExceptionHandler (503 + Retry-After)
+            throw e;
         } catch (Exception e) {
             logger.error("Erro inesperado na autenticação para {} - {}", authRequest.getUsername(), e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -137,27 +159,22 @@ public class LoginController {
     }
     
     @PostMapping("/refreshtoken")
-    public ResponseEntity<?> refreshToken(@Valid @RequestBody RefreshTokenRequest request) {
+    public ResponseEntity<?> refreshToken(@Valid @RequestBody RefreshTokenRequest request,
+                                          HttpServletRequest httpRequest) {
         String requestRefreshToken = request.getRefreshToken();
         logger.debug("Solicitação de renovação de token com refresh token: {}...", 
                     requestRefreshToken.substring(0, Math.min(10, requestRefreshToken.length())));
 
-        return refreshTokenService.findByToken(requestRefreshToken)
-                .map(refreshTokenService::verifyExpiration)
-                .map(RefreshToken::getUser)
-                .map(user -> {
-                    // Gerar novo access token
-                    UserDetails userDetails = userDetailsService.loadUserByUsername(user.getUsername());
-                    String accessToken = jwtUtil.generateToken(userDetails);
-                    
-                    logger.info("Token renovado com sucesso para usuário: {}", user.getUsername());
-                    return ResponseEntity.ok(new TokenRefreshResponse(accessToken, requestRefreshToken));
-                })
-                .orElseThrow(() -> {
-                    logger.warn("Refresh token não encontrado ou inválido: {}...", 
-                               requestRefreshToken.substring(0, Math.min(10, requestRefreshToken.length())));
-                    return new RuntimeException("Refresh token não encontrado ou inválido! Por favor, faça login novamente.");
-                });
+        // O refresh token apresentado é consumido e trocado por um sucessor (rotação)
+        RefreshTokenService.RotatedRefreshToken rotated = refreshTokenService.rotateRefreshToken(
+                requestRefreshToken, httpRequest.getHeader("User-Agent"), httpRequest.getRemoteAddr());
+
+        // Gerar novo access token
+        UserDetails userDetails = userDetailsService.loadUserByUsername(rotated.getUser().getUsername());
+        String accessToken = jwtUtil.generateToken(userDetails);
+
+        logger.info("Token renovado com sucesso para usuário: {}", rotated.getUser().getUsername());
+        return ResponseEntity.ok(new TokenRefreshResponse(accessToken, rotated.getRefreshToken()));
     }
 
     @PostMapping("/logout")
@@ -6,13 +6,15 @@ import com.backend.tessera.model.Role;
 import com.backend.tessera.model.User;
 import com.backend.tessera.dto.SignupRequest;
 import com.backend.tessera.dto.MessageResponse;
+import com.backend.tessera.exception.ServiceOverloadedException;
 import com.backend.tessera.repository.UserRepository;
+import com.backend.tessera.security.PasswordHashingExecutor;
 import com.backend.tessera.service.EmailVerificationService;
+import com.backend.tessera.service.UserCacheService;
 
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 import jakarta.validation.Valid;
 
@@ -27,11 +29,14 @@ public class RegisterController {
     UserRepository userRepository;
 
     @Autowired
-    PasswordEncoder encoder;
+    PasswordHashingExecutor passwordHashingExecutor;
 
     @Autowired
     EmailVerificationService emailVerificationService;
 
+    @Autowired
+    UserCacheService userCacheService;
+
     @PostMapping("/register")
     public ResponseEntity<?> registerUser(@Valid @RequestBody SignupRequest signUpRequest) {
         try {
@@ -83,7 +88,7 @@ public class RegisterController {
             user.setNome(signUpRequest.getNome());
             user.setUsername(signUpRequest.getUsername());
             user.setEmail(signUpRequest.getEmail());
-            user.setPassword(encoder.encode(signUpRequest.getPassword()));
+            user.setPassword(passwordHashingExecutor.encode(signUpRequest.getPassword()));
             user.setInstitution(signUpRequest.getInstitution());
             user.setRole(userRole);
             
@@ -94,6 +99,8 @@ public class RegisterController {
             
             // Salvar no banco de dados
             userRepository.save(user);
+            // Retira o username do cache negativo de usuários inexistentes
+            userCacheService.evict(user.getUsername());
             
             logger.info("Usuário registrado com sucesso: {}, Papel: {}, Status: {}", 
                         user.getUsername(), user.getRole(), user.getStatus());
@@ -115,6 +122,9 @@ public class RegisterController {
             }
 
             return ResponseEntity.ok(new MessageResponse(message));
+        } catch (ServiceOverloadedException e) {
+            // Tratada pelo GlobalExceptionHandler (503 + Retry-After)
+            throw e;
         } catch (Exception e) {
             logger.error("Erro ao registrar usuário: {}", e.getMessage(), e);
             return ResponseEntity
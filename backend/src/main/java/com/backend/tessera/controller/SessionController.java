@@ -0,0 +1,75 @@
+package com.backend.tessera.controller;
+
+import com.backend.tessera.config.LoggerConfig;
+import com.backend.tessera.dto.MessageResponse;
+import com.backend.tessera.dto.RefreshTokenRequest;
+import com.backend.tessera.dto.SessionResponse;
+import com.backend.tessera.model.User;
+import com.backend.tessera.repository.UserRepository;
+import com.backend.tessera.security.JwtUserPrincipal;
+import com.backend.tessera.service.RefreshTokenService;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Sessões (refresh tokens ativos) do usuário autenticado
+ */
+@RestController
+@RequestMapping("/api/sessions")
+public class SessionController {
+    private static final Logger logger = LoggerConfig.getLogger(SessionController.class);
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    /**
+     * Lista as sessões ativas do usuário, da mais recente para a mais antiga
+     */
+    @GetMapping
+    public ResponseEntity<List<SessionResponse>> listSessions(Authentication authentication) {
+        Long userId = resolveUserId(authentication);
+        List<SessionResponse> sessions = refreshTokenService.listActiveSessions(userId).stream()
+                .map(view -> new SessionResponse(view.getId(), view.getUserAgent(), view.getIpAddress(),
+                        view.getExpiryDate()))
+                .toList();
+        return ResponseEntity.ok(sessions);
+    }
+
+    /**
+     * Encerra todas as sessões do usuário, exceto a do refresh token enviado
+     */
+    @PostMapping("/revoke-others")
+    public ResponseEntity<MessageResponse> revokeOtherSessions(Authentication authentication,
+                                                               @Valid @RequestBody RefreshTokenRequest request) {
+        Long userId = resolveUserId(authentication);
+        int revoked = refreshTokenService.revokeOtherSessions(userId, request.getRefreshToken());
+        logger.debug("Usuário {} encerrou {} outras sessões", authentication.getName(), revoked);
+        return ResponseEntity.ok(new MessageResponse(revoked + " sessões encerradas"));
+    }
+
+    private Long resolveUserId(Authentication authentication) {
+        Object principal = authentication.getPrincipal();
+        if (principal instanceof User user) {
+            return user.getId();
+        }
+        if (principal instanceof JwtUserPrincipal jwtPrincipal) {
+            return jwtPrincipal.getId();
+        }
+        return userRepository.findByUsername(authentication.getName())
+                .map(User::getId)
+                .orElseThrow(() -> new IllegalArgumentException("Usuário não encontrado"));
+    }
+}
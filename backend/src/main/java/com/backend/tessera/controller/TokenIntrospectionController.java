@@ -0,0 +1,66 @@
+package com.backend.tessera.controller;
+
+import com.backend.tessera.config.LoggerConfig;
+import com.backend.tessera.dto.MessageResponse;
+import com.backend.tessera.dto.TokenIntrospectionRequest;
+import com.backend.tessera.dto.TokenIntrospectionResponse;
+import com.backend.tessera.service.TokenIntrospectionService;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+
+/**
+ * Introspecção em lote de tokens para serviços internos, autenticada por chave compartilhada
+ */
+@RestController
+@RequestMapping("/api/internal/tokens")
+public class TokenIntrospectionController {
+    private static final Logger logger = LoggerConfig.getLogger(TokenIntrospectionController.class);
+
+    static final String API_KEY_HEADER = "X-Internal-Api-Key";
+
+    @Autowired
+    private TokenIntrospectionService tokenIntrospectionService;
+
+    // Vazio desativa o endpoint
+    @Value("${app.internal.api-key:}")
+    private String internalApiKey;
+
+    @Value("${app.introspection.max-batch:500}")
+    private int maxBatch;
+
+    @PostMapping("/introspect")
+    public ResponseEntity<?> introspect(
+            @RequestHeader(value = API_KEY_HEADER, required = false) String apiKey,
+            @RequestBody TokenIntrospectionRequest request) {
+        if (internalApiKey.isBlank()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(new MessageResponse("Introspecção de tokens desativada"));
+        }
+        if (apiKey == null || !MessageDigest.isEqual(
+                apiKey.getBytes(StandardCharsets.UTF_8), internalApiKey.getBytes(StandardCharsets.UTF_8))) {
+            logger.warn("Tentativa de introspecção com chave interna inválida");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(new MessageResponse("Chave de API interna inválida"));
+        }
+
+        List<String> accessTokens = request.getAccessTokens() != null ? request.getAccessTokens() : List.of();
+        List<String> refreshTokens = request.getRefreshTokens() != null ? request.getRefreshTokens() : List.of();
+        if (accessTokens.size() + refreshTokens.size() > maxBatch) {
+            throw new IllegalArgumentException("Lote excede o máximo de " + maxBatch + " tokens por requisição");
+        }
+
+        TokenIntrospectionResponse response = new TokenIntrospectionResponse(
+                tokenIntrospectionService.introspectAccessTokens(accessTokens),
+                tokenIntrospectionService.introspectRefreshTokens(refreshTokens));
+        logger.info("Introspecção de {} access tokens e {} refresh tokens", accessTokens.size(), refreshTokens.size());
+        return ResponseEntity.ok(response);
+    }
+}
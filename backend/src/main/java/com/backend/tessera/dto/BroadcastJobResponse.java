@@ -0,0 +1,100 @@
+package com.backend.tessera.dto;
+
+import com.backend.tessera.model.BroadcastJob;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Situação de um job de broadcast, com progresso e vazão (emails por segundo desde o início)
+ */
+public class BroadcastJobResponse {
+    private Long id;
+    private String status;
+    private String subject;
+    private String role;
+    private String institution;
+    private long totalRecipients;
+    private long sentCount;
+    private long failedCount;
+    private double progress;
+    private double throughputPerSecond;
+    private String createdBy;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+
+    public BroadcastJobResponse() {
+    }
+
+    public static BroadcastJobResponse from(BroadcastJob job) {
+        BroadcastJobResponse response = new BroadcastJobResponse();
+        response.id = job.getId();
+        response.status = job.getStatus().name();
+        response.subject = job.getSubject();
+        response.role = job.getRole() != null ? job.getRole().name() : null;
+        response.institution = job.getInstitution();
+        response.totalRecipients = job.getTotalRecipients();
+        response.sentCount = job.getSentCount();
+        response.failedCount = job.getFailedCount();
+        response.createdBy = job.getCreatedBy();
+        response.createdAt = job.getCreatedAt();
+        response.startedAt = job.getStartedAt();
+        response.finishedAt = job.getFinishedAt();
+
+        long processed = job.getSentCount() + job.getFailedCount();
+        if (job.getTotalRecipients() > 0) {
+            response.progress = Math.min(100.0, processed * 100.0 / job.getTotalRecipients());
+        } else if (job.getStatus() == BroadcastJob.Status.COMPLETED) {
+            response.progress = 100.0;
+        }
+        if (job.getStartedAt() != null) {
+            LocalDateTime end = job.getFinishedAt() != null ? job.getFinishedAt() : LocalDateTime.now();
+            long elapsedMs = Duration.between(job.getStartedAt(), end).toMillis();
+            response.throughputPerSecond = elapsedMs > 0 ? processed * 1000.0 / elapsedMs : 0.0;
+        }
+        return response;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public String getSubject() { return subject; }
+    public void setSubject(String subject) { this.subject = subject; }
+
+    public String getRole() { return role; }
+    public void setRole(String role) { this.role = role; }
+
+    public String getInstitution() { return institution; }
+    public void setInstitution(String institution) { this.institution = institution; }
+
+    public long getTotalRecipients() { return totalRecipients; }
+    public void setTotalRecipients(long totalRecipients) { this.totalRecipients = totalRecipients; }
+
+    public long getSentCount() { return sentCount; }
+    public void setSentCount(long sentCount) { this.sentCount = sentCount; }
+
+    public long getFailedCount() { return failedCount; }
+    public void setFailedCount(long failedCount) { this.failedCount = failedCount; }
+
+    public double getProgress() { return progress; }
+    public void setProgress(double progress) { this.progress = progress; }
+
+    public double getThroughputPerSecond() { return throughputPerSecond; }
+    public void setThroughputPerSecond(double throughputPerSecond) { this.throughputPerSecond = throughputPerSecond; }
+
+    public String getCreatedBy() { return createdBy; }
+    public void setCreatedBy(String createdBy) { this.createdBy = createdBy; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(LocalDateTime finishedAt) { this.finishedAt = finishedAt; }
+}
@@ -0,0 +1,43 @@
+package com.backend.tessera.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+/**
+ * Email a ser enviado a todos os usuários ativos que atendem aos filtros (perfil e/ou instituição)
+ */
+public class BroadcastRequest {
+    @NotBlank
+    @Size(max = 255)
+    private String subject;
+
+    @NotBlank
+    @Size(max = 10000)
+    private String message;
+
+    private String role;
+
+    private String institution;
+
+    public BroadcastRequest() {
+    }
+
+    public BroadcastRequest(String subject, String message, String role, String institution) {
+        this.subject = subject;
+        this.message = message;
+        this.role = role;
+        this.institution = institution;
+    }
+
+    public String getSubject() { return subject; }
+    public void setSubject(String subject) { this.subject = subject; }
+
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+
+    public String getRole() { return role; }
+    public void setRole(String role) { this.role = role; }
+
+    public String getInstitution() { return institution; }
+    public void setInstitution(String institution) { this.institution = institution; }
+}
@@ -0,0 +1,55 @@
+package com.backend.tessera.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Sessão ativa (refresh token) de um usuário
+ */
+public class SessionResponse {
+    private Long id;
+    private String userAgent;
+    private String ipAddress;
+    private LocalDateTime expiryDate;
+
+    public SessionResponse() {
+    }
+
+    public SessionResponse(Long id, String userAgent, String ipAddress, LocalDateTime expiryDate) {
+        this.id = id;
+        this.userAgent = userAgent;
+        this.ipAddress = ipAddress;
+        this.expiryDate = expiryDate;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getUserAgent() {
+        return userAgent;
+    }
+
+    public void setUserAgent(String userAgent) {
+        this.userAgent = userAgent;
+    }
+
+    public String getIpAddress() {
+        return ipAddress;
+    }
+
+    public void setIpAddress(String ipAddress) {
+        this.ipAddress = ipAddress;
+    }
+
+    public LocalDateTime getExpiryDate() {
+        return expiryDate;
+    }
+
+    public void setExpiryDate(LocalDateTime expiryDate) {
+        this.expiryDate = expiryDate;
+    }
+}
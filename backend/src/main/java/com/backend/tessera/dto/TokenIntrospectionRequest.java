@@ -0,0 +1,33 @@
+package com.backend.tessera.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TokenIntrospectionRequest {
+    private List<String> accessTokens = new ArrayList<>();
+    private List<String> refreshTokens = new ArrayList<>();
+
+    public TokenIntrospectionRequest() {
+    }
+
+    public TokenIntrospectionRequest(List<String> accessTokens, List<String> refreshTokens) {
+        this.accessTokens = accessTokens;
+        this.refreshTokens = refreshTokens;
+    }
+
+    public List<String> getAccessTokens() {
+        return accessTokens;
+    }
+
+    public void setAccessTokens(List<String> accessTokens) {
+        this.accessTokens = accessTokens;
+    }
+
+    public List<String> getRefreshTokens() {
+        return refreshTokens;
+    }
+
+    public void setRefreshTokens(List<String> refreshTokens) {
+        this.refreshTokens = refreshTokens;
+    }
+}
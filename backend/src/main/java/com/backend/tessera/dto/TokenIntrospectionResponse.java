@@ -0,0 +1,33 @@
+package com.backend.tessera.dto;
+
+import java.util.List;
+
+public class TokenIntrospectionResponse {
+    private List<TokenIntrospectionResult> accessTokens;
+    private List<TokenIntrospectionResult> refreshTokens;
+
+    public TokenIntrospectionResponse() {
+    }
+
+    public TokenIntrospectionResponse(List<TokenIntrospectionResult> accessTokens,
+                                      List<TokenIntrospectionResult> refreshTokens) {
+        this.accessTokens = accessTokens;
+        this.refreshTokens = refreshTokens;
+    }
+
+    public List<TokenIntrospectionResult> getAccessTokens() {
+        return accessTokens;
+    }
+
+    public void setAccessTokens(List<TokenIntrospectionResult> accessTokens) {
+        this.accessTokens = accessTokens;
+    }
+
+    public List<TokenIntrospectionResult> getRefreshTokens() {
+        return refreshTokens;
+    }
+
+    public void setRefreshTokens(List<TokenIntrospectionResult> refreshTokens) {
+        this.refreshTokens = refreshTokens;
+    }
+}
@@ -0,0 +1,102 @@
+package com.backend.tessera.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Resultado da introspecção de um token; index é a posição do token na lista da requisição
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TokenIntrospectionResult {
+
+    public enum State {
+        ACTIVE, EXPIRED, REVOKED, INVALID
+    }
+
+    private int index;
+    private State state;
+    private String username;
+    private Long userId;
+    private String accountStatus;
+    private List<String> roles;
+    private Instant issuedAt;
+    private Instant expiresAt;
+
+    public TokenIntrospectionResult() {
+    }
+
+    public TokenIntrospectionResult(int index, State state) {
+        this.index = index;
+        this.state = state;
+    }
+
+    public boolean isActive() {
+        return state == State.ACTIVE;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public void setState(State state) {
+        this.state = state;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getAccountStatus() {
+        return accountStatus;
+    }
+
+    public void setAccountStatus(String accountStatus) {
+        this.accountStatus = accountStatus;
+    }
+
+    public List<String> getRoles() {
+        return roles;
+    }
+
+    public void setRoles(List<String> roles) {
+        this.roles = roles;
+    }
+
+    public Instant getIssuedAt() {
+        return issuedAt;
+    }
+
+    public void setIssuedAt(Instant issuedAt) {
+        this.issuedAt = issuedAt;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
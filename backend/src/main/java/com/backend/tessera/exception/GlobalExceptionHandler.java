@@ -3,6 +3,7 @@ package com.backend.tessera.exception;
 import com.backend.tessera.config.LoggerConfig;
 import com.backend.tessera.dto.MessageResponse;
 import org.slf4j.Logger;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -75,6 +76,21 @@ public class GlobalExceptionHandler {
                 .body(new MessageResponse("Acesso negado: você não tem permissão para acessar este recurso."));
     }
 
+    @ExceptionHandler(RefreshTokenConflictException.class)
+    public ResponseEntity<MessageResponse> handleRefreshTokenConflictException(RefreshTokenConflictException ex) {
+        logger.warn("Conflito na renovação de token: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(new MessageResponse(ex.getMessage()));
+    }
+
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<MessageResponse> handleServiceOverloadedException(ServiceOverloadedException ex) {
+        logger.warn("Serviço sobrecarregado: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(new MessageResponse(ex.getMessage()));
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<MessageResponse> handleException(Exception ex) {
         logger.error("Erro inesperado: {}", ex.getMessage(), ex);
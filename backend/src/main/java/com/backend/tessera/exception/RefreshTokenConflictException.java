@@ -0,0 +1,11 @@
+package com.backend.tessera.exception;
+
+/**
+ * Lançada quando o refresh token acabou de ser trocado por outra requisição e o sucessor ainda não está
+ * disponível. Tratada como 409; o cliente deve tentar novamente.
+ */
+public class RefreshTokenConflictException extends RuntimeException {
+    public RefreshTokenConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,18 @@
+package com.backend.tessera.exception;
+
+/**
+ * Lançada quando um recurso limitado (ex.: executor de hashing de senhas) está saturado.
+ * Tratada como 503 com o cabeçalho Retry-After.
+ */
+public class ServiceOverloadedException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public ServiceOverloadedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,91 @@
+package com.backend.tessera.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Envio de um mesmo email a um grupo de usuários (filtrado por perfil e/ou instituição).
+ *
+ * Os destinatários são percorridos em ordem de id; lastUserId é o checkpoint do último lote concluído, de modo
+ * que um job interrompido (reinício, queda da instância) continua do ponto onde parou. heartbeatAt é renovado
+ * a cada checkpoint (e durante lotes demorados) e indica se a instância que está com o job continua viva.
+ * claimToken identifica a execução que assumiu o job: checkpoints e a finalização só valem para ela, então uma
+ * execução antiga que volte depois de o job ser retomado por outra não grava mais nada.
+ */
+@Entity
+@Table(name = "broadcast_jobs", indexes = {
+        @Index(name = "idx_broadcast_jobs_status", columnList = "status, heartbeatAt")
+})
+@Data
+@NoArgsConstructor
+public class BroadcastJob {
+
+    public enum Status {
+        PENDING,
+        RUNNING,
+        COMPLETED,
+        CANCELLED,
+        FAILED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String subject;
+
+    @Column(nullable = false, length = 10000)
+    private String message;
+
+    // Filtros dos destinatários; nulo significa "todos"
+    @Enumerated(EnumType.STRING)
+    private Role role;
+
+    private String institution;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status = Status.PENDING;
+
+    @Column(nullable = false)
+    private long lastUserId = 0;
+
+    @Column(nullable = false)
+    private long totalRecipients = 0;
+
+    @Column(nullable = false)
+    private long sentCount = 0;
+
+    @Column(nullable = false)
+    private long failedCount = 0;
+
+    @Column(nullable = false)
+    private String createdBy;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime heartbeatAt;
+
+    @Column(length = 36)
+    private String claimToken;
+
+    private LocalDateTime finishedAt;
+
+    public static BroadcastJob create(String subject, String message, Role role, String institution, String createdBy) {
+        BroadcastJob job = new BroadcastJob();
+        job.setSubject(subject);
+        job.setMessage(message);
+        job.setRole(role);
+        job.setInstitution(institution);
+        job.setCreatedBy(createdBy);
+        job.setCreatedAt(LocalDateTime.now());
+        return job;
+    }
+}
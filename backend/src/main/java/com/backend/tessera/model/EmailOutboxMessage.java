@@ -0,0 +1,69 @@
+package com.backend.tessera.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Email aguardando envio. Gravado na mesma transação que o token ao qual se refere e removido após o envio;
+ * mensagens que esgotam as tentativas ficam com status FAILED para inspeção.
+ */
+@Entity
+@Table(name = "email_outbox", indexes = {
+        @Index(name = "idx_email_outbox_due", columnList = "status, nextAttemptAt"),
+        @Index(name = "idx_email_outbox_created_at", columnList = "status, createdAt")
+})
+@Data
+@NoArgsConstructor
+public class EmailOutboxMessage {
+
+    public enum Status {
+        PENDING,
+        FAILED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String recipient;
+
+    @Column(nullable = false)
+    private String subject;
+
+    // Corpo HTML já renderizado, em UTF-8
+    @Lob
+    @Column(nullable = false)
+    private byte[] body;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status = Status.PENDING;
+
+    @Column(nullable = false)
+    private int attempts = 0;
+
+    // Próxima tentativa; enquanto uma instância envia a mensagem, funciona como prazo da reserva
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(length = 500)
+    private String lastError;
+
+    public static EmailOutboxMessage create(String recipient, String subject, byte[] body) {
+        EmailOutboxMessage message = new EmailOutboxMessage();
+        LocalDateTime now = LocalDateTime.now();
+        message.setRecipient(recipient);
+        message.setSubject(subject);
+        message.setBody(body);
+        message.setCreatedAt(now);
+        message.setNextAttemptAt(now);
+        return message;
+    }
+}
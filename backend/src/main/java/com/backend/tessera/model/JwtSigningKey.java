@@ -0,0 +1,51 @@
+package com.backend.tessera.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Par de chaves de assinatura dos access tokens (modos ES256 e EdDSA), compartilhado por todas as instâncias.
+ *
+ * generation cresce a cada rotação e é única por algoritmo: quando duas instâncias tentam rotacionar ao mesmo
+ * tempo, apenas a primeira inserção vence. A chave privada é gravada cifrada (ver JwtKeyRing).
+ */
+@Entity
+@Table(name = "jwt_signing_keys", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_jwt_signing_keys_generation", columnNames = {"algorithm", "generation"}),
+        @UniqueConstraint(name = "uk_jwt_signing_keys_kid", columnNames = "kid")
+})
+@Data
+@NoArgsConstructor
+public class JwtSigningKey {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 16)
+    private String algorithm;
+
+    @Column(nullable = false)
+    private long generation;
+
+    @Column(nullable = false, length = 64)
+    private String kid;
+
+    // X.509 em base64
+    @Column(nullable = false, length = 1024)
+    private String publicKey;
+
+    // PKCS#8 cifrado com AES-GCM (IV + texto cifrado) em base64
+    @Column(nullable = false, length = 2048)
+    private String privateKey;
+
+    @Column(nullable = false, updatable = false)
+    private Instant createdAt;
+
+    // A chave é publicada no JWKS desde createdAt e passa a assinar em activateAt
+    @Column(nullable = false, updatable = false)
+    private Instant activateAt;
+}
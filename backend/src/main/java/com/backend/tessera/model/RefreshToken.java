@@ -3,19 +3,37 @@ package com.backend.tessera.model;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
 import java.time.LocalDateTime;
+import java.util.Base64;
 import java.util.UUID;
 
 @Entity
-@Table(name = "refresh_tokens")
+@Table(name = "refresh_tokens", indexes = {
+        @Index(name = "idx_refresh_tokens_expiry_date", columnList = "expiryDate"),
+        @Index(name = "idx_refresh_tokens_revoked_at", columnList = "revoked, revokedAt"),
+        @Index(name = "idx_refresh_tokens_family_id", columnList = "familyId"),
+        @Index(name = "idx_refresh_tokens_user_expiry", columnList = "user_id, expiryDate")
+})
 @Data
 @NoArgsConstructor
 public class RefreshToken {
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final int TOKEN_BYTES = 32;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(nullable = false, unique = true)
+    // SHA-256 do token opaco; o valor em claro nunca é gravado (nulo apenas em linhas legadas antes da migração)
+    @Column(name = "token_hash", columnDefinition = "BINARY(32)", unique = true)
+    private byte[] tokenHash;
+
+    // Valor em claro, disponível apenas no objeto recém-criado para ser devolvido ao cliente
+    @Transient
     private String token;
 
     @ManyToOne
@@ -28,6 +46,20 @@ public class RefreshToken {
     @Column(nullable = false)
     private boolean revoked = false;
 
+    // Momento da revogação; tokens revogados são removidos após o período de carência
+    private LocalDateTime revokedAt;
+
+    // Todos os tokens obtidos por rotação a partir do mesmo login compartilham a família
+    @Column(length = 36)
+    private String familyId;
+
+    // Momento em que o token foi trocado pelo sucessor; um token consumido não pode ser usado de novo
+    private LocalDateTime consumedAt;
+
+    // User.tokenVersion na emissão; o token deixa de valer quando a versão do usuário avança
+    @Column(nullable = false)
+    private long tokenVersion = 0;
+
     @Column(nullable = false)
     private String userAgent;
 
@@ -41,11 +73,47 @@ public class RefreshToken {
     public static RefreshToken createToken(User user, int expirationInMs, String userAgent, String ipAddress) {
         RefreshToken token = new RefreshToken();
         token.setUser(user);
-        token.setToken(UUID.randomUUID().toString());
+        String rawToken = generateRawToken();
+        token.setToken(rawToken);
+        token.setTokenHash(hashToken(rawToken));
         token.setExpiryDate(LocalDateTime.now().plusSeconds(expirationInMs / 1000));
         token.setUserAgent(userAgent != null ? userAgent : "Desconhecido");
         token.setIpAddress(ipAddress != null ? ipAddress : "0.0.0.0");
         token.setRevoked(false);
+        token.setTokenVersion(user.getTokenVersion());
+        token.setFamilyId(UUID.randomUUID().toString());
         return token;
     }
-}
\ No newline at end of file
+
+    /**
+     * Cria o sucessor de um token consumido, na mesma família, com o valor em claro informado
+     */
+    public static RefreshToken createSuccessor(RefreshToken consumed, String rawToken, String familyId,
+                                               int expirationInMs, String userAgent, String ipAddress) {
+        RefreshToken token = createToken(consumed.getUser(), expirationInMs, userAgent, ipAddress);
+        token.setToken(rawToken);
+        token.setTokenHash(hashToken(rawToken));
+        token.setFamilyId(familyId);
+        return token;
+    }
+
+    /**
+     * Token opaco com 256 bits de entropia, em Base64 URL-safe
+     */
+    private static String generateRawToken() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * SHA-256 do token em claro, usado para gravação e busca
+     */
+    public static byte[] hashToken(String rawToken) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(rawToken.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 não disponível", e);
+        }
+    }
+}
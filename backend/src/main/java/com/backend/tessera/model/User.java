@@ -16,6 +16,10 @@ import java.util.List;
 @Table(name = "users", uniqueConstraints = {
     @UniqueConstraint(columnNames = "username"),
     @UniqueConstraint(columnNames = "email")
+}, indexes = {
+    @Index(name = "idx_users_token_version", columnList = "tokenVersion"),
+    @Index(name = "idx_users_status_role", columnList = "status, role, id"),
+    @Index(name = "idx_users_updated_at", columnList = "updatedAt")
 })
 @Data
 @NoArgsConstructor
@@ -66,6 +70,16 @@ public class User implements UserDetails {
     @Column(updatable = false)
     private LocalDateTime createdAt;
 
+    // Versão das credenciais: incrementada para invalidar de uma vez todos os access e refresh tokens emitidos.
+    // Só o UPDATE de UserRepository.incrementTokenVersion a altera: um save() da entidade carregada antes do
+    // incremento não pode gravar a versão antiga de volta
+    @Column(nullable = false, updatable = false)
+    private long tokenVersion = 0;
+
+    // Última alteração da conta (save() ou incrementTokenVersion); as demais instâncias leem as linhas alteradas
+    // desde a última leitura para tirar a conta dos seus caches (ver UserCacheService)
+    private LocalDateTime updatedAt;
+
     // Atributos para verificação de email
     private boolean emailVerified = false;
     private LocalDateTime emailVerifiedAt;
@@ -79,6 +93,12 @@ public class User implements UserDetails {
             this.status = AccountStatus.PENDENTE; // Define um padrão se status for nulo
         }
         this.enabled = (this.status == AccountStatus.ATIVO);
+        this.updatedAt = this.createdAt;
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        this.updatedAt = LocalDateTime.now();
     }
 
     // Construtores
@@ -0,0 +1,35 @@
+package com.backend.tessera.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Registro de um usuário removido, lido por todas as instâncias (TokenEpochRegistry) para rejeitar os access
+ * tokens ainda não expirados do usuário e (UserCacheService) para tirá-lo dos caches. Depois de jwt.expiration
+ * não há mais tokens a rejeitar e o registro é apagado.
+ */
+@Entity
+@Table(name = "user_tombstones", indexes = {
+        @Index(name = "idx_user_tombstones_deleted_at", columnList = "deletedAt")
+})
+@Data
+@NoArgsConstructor
+public class UserTombstone {
+
+    @Id
+    private Long userId;
+
+    private String username;
+
+    @Column(nullable = false)
+    private LocalDateTime deletedAt;
+
+    public UserTombstone(Long userId, String username, LocalDateTime deletedAt) {
+        this.userId = userId;
+        this.username = username;
+        this.deletedAt = deletedAt;
+    }
+}
@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
@@ -30,6 +31,8 @@ public class VerificationToken {
 
     private boolean used;
 
+    private LocalDateTime createdAt;
+
     // Enumeração para tipo de token
     public enum TokenType {
         PASSWORD_RESET,
@@ -41,6 +44,11 @@ public class VerificationToken {
         return LocalDateTime.now().isAfter(expiryDate);
     }
 
+    // Indica se o token ainda vale e foi emitido dentro da janela informada (pode ser reaproveitado)
+    public boolean isIssuedWithin(Duration window) {
+        return !used && !isExpired() && createdAt != null && createdAt.isAfter(LocalDateTime.now().minus(window));
+    }
+
     // Método de fábrica para criar um token de redefinição de senha
     public static VerificationToken createPasswordResetToken(User user, int expirationInMs) {
         VerificationToken token = new VerificationToken();
@@ -49,6 +57,7 @@ public class VerificationToken {
         token.setTokenType(TokenType.PASSWORD_RESET);
         token.setExpiryDate(LocalDateTime.now().plusNanos(expirationInMs * 1000000L));
         token.setUsed(false);
+        token.setCreatedAt(LocalDateTime.now());
         return token;
     }
 
@@ -60,6 +69,7 @@ public class VerificationToken {
         token.setTokenType(TokenType.EMAIL_VERIFICATION);
         token.setExpiryDate(LocalDateTime.now().plusNanos(expirationInMs * 1000000L));
         token.setUsed(false);
+        token.setCreatedAt(LocalDateTime.now());
         return token;
     }
 }
\ No newline at end of file
@@ -0,0 +1,65 @@
+package com.backend.tessera.repository;
+
+import com.backend.tessera.model.BroadcastJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface BroadcastJobRepository extends JpaRepository<BroadcastJob, Long> {
+
+    /**
+     * Assume o job se ele ainda não começou ou se a instância que o executava parou de renovar o heartbeat
+     *
+     * @return 1 se esta execução (claimToken) ficou com o job
+     */
+    @Modifying
+    @Query("UPDATE BroadcastJob j SET j.status = com.backend.tessera.model.BroadcastJob.Status.RUNNING, " +
+           "j.claimToken = :claimToken, j.heartbeatAt = :now, j.startedAt = COALESCE(j.startedAt, :now) " +
+           "WHERE j.id = :id AND (j.status = com.backend.tessera.model.BroadcastJob.Status.PENDING OR " +
+           "(j.status = com.backend.tessera.model.BroadcastJob.Status.RUNNING AND j.heartbeatAt < :staleBefore))")
+    int claim(@Param("id") Long id, @Param("claimToken") String claimToken, @Param("now") LocalDateTime now,
+              @Param("staleBefore") LocalDateTime staleBefore);
+
+    /**
+     * @return 0 se o job foi cancelado ou assumido por outra execução
+     */
+    @Modifying
+    @Query("UPDATE BroadcastJob j SET j.lastUserId = :lastUserId, j.sentCount = j.sentCount + :sent, " +
+           "j.failedCount = j.failedCount + :failed, j.heartbeatAt = :now " +
+           "WHERE j.id = :id AND j.claimToken = :claimToken " +
+           "AND j.status = com.backend.tessera.model.BroadcastJob.Status.RUNNING")
+    int checkpoint(@Param("id") Long id, @Param("claimToken") String claimToken, @Param("lastUserId") long lastUserId,
+                   @Param("sent") long sent, @Param("failed") long failed, @Param("now") LocalDateTime now);
+
+    /**
+     * Renova o heartbeat no meio de um lote, para que um lote demorado não faça o job parecer abandonado
+     *
+     * @return 0 se o job foi cancelado ou assumido por outra execução
+     */
+    @Modifying
+    @Query("UPDATE BroadcastJob j SET j.heartbeatAt = :now WHERE j.id = :id AND j.claimToken = :claimToken " +
+           "AND j.status = com.backend.tessera.model.BroadcastJob.Status.RUNNING")
+    int heartbeat(@Param("id") Long id, @Param("claimToken") String claimToken, @Param("now") LocalDateTime now);
+
+    /**
+     * Finaliza o job executado por esta execução (concluído ou com falha)
+     */
+    @Modifying
+    @Query("UPDATE BroadcastJob j SET j.status = :status, j.finishedAt = :now WHERE j.id = :id " +
+           "AND j.claimToken = :claimToken AND j.status = com.backend.tessera.model.BroadcastJob.Status.RUNNING")
+    int finishClaimed(@Param("id") Long id, @Param("claimToken") String claimToken,
+                      @Param("status") BroadcastJob.Status status, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE BroadcastJob j SET j.status = :status, j.finishedAt = :now WHERE j.id = :id AND j.status IN :from")
+    int finish(@Param("id") Long id, @Param("status") BroadcastJob.Status status,
+               @Param("from") List<BroadcastJob.Status> from, @Param("now") LocalDateTime now);
+
+    @Query("SELECT j.id FROM BroadcastJob j WHERE j.status = com.backend.tessera.model.BroadcastJob.Status.PENDING OR " +
+           "(j.status = com.backend.tessera.model.BroadcastJob.Status.RUNNING AND j.heartbeatAt < :staleBefore)")
+    List<Long> findResumableIds(@Param("staleBefore") LocalDateTime staleBefore);
+}
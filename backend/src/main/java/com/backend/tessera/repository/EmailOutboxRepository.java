@@ -0,0 +1,50 @@
+package com.backend.tessera.repository;
+
+import com.backend.tessera.model.EmailOutboxMessage;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface EmailOutboxRepository extends JpaRepository<EmailOutboxMessage, Long> {
+
+    // Reserva de um lote: SELECT ... FOR UPDATE SKIP LOCKED (lock.timeout = -2), para que várias instâncias
+    // dividam a fila sem disputar as mesmas linhas
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT m FROM EmailOutboxMessage m WHERE m.status = com.backend.tessera.model.EmailOutboxMessage.Status.PENDING " +
+           "AND m.nextAttemptAt <= :now ORDER BY m.nextAttemptAt ASC")
+    List<EmailOutboxMessage> findDueForUpdate(@Param("now") LocalDateTime now, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM EmailOutboxMessage m WHERE m.id = :id")
+    int deleteSent(@Param("id") Long id);
+
+    /**
+     * Devolve a mensagem reservada sem contar a tentativa (envio adiado pelo limite de taxa do domínio)
+     */
+    @Modifying
+    @Query("UPDATE EmailOutboxMessage m SET m.attempts = m.attempts - 1, m.nextAttemptAt = :nextAttemptAt WHERE m.id = :id")
+    int defer(@Param("id") Long id, @Param("nextAttemptAt") LocalDateTime nextAttemptAt);
+
+    @Modifying
+    @Query("UPDATE EmailOutboxMessage m SET m.status = :status, m.nextAttemptAt = :nextAttemptAt, m.lastError = :error " +
+           "WHERE m.id = :id")
+    int markFailedAttempt(@Param("id") Long id, @Param("status") EmailOutboxMessage.Status status,
+                          @Param("nextAttemptAt") LocalDateTime nextAttemptAt, @Param("error") String error);
+
+    long countByStatus(EmailOutboxMessage.Status status);
+
+    @Query("SELECT MIN(m.createdAt) FROM EmailOutboxMessage m " +
+           "WHERE m.status = com.backend.tessera.model.EmailOutboxMessage.Status.PENDING")
+    Optional<LocalDateTime> findOldestPendingCreatedAt();
+}
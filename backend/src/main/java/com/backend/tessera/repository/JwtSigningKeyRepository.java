@@ -0,0 +1,21 @@
+package com.backend.tessera.repository;
+
+import com.backend.tessera.model.JwtSigningKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public interface JwtSigningKeyRepository extends JpaRepository<JwtSigningKey, Long> {
+
+    List<JwtSigningKey> findByAlgorithmOrderByGenerationAsc(String algorithm);
+
+    // Remove as chaves anteriores à geração informada (já substituídas e sem tokens válidos)
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM JwtSigningKey k WHERE k.algorithm = :algorithm AND k.generation < :generation")
+    int deleteOlderThan(@Param("algorithm") String algorithm, @Param("generation") long generation);
+}
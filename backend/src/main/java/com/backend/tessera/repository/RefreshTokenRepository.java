@@ -1,12 +1,92 @@
 package com.backend.tessera.repository;
 
 import com.backend.tessera.model.RefreshToken;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.Optional;
 import java.util.List;
 
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
-    Optional<RefreshToken> findByToken(String token);
+    Optional<RefreshToken> findByTokenHash(byte[] tokenHash);
     List<RefreshToken> findByUserId(Long userId);
     void deleteByUserId(Long userId);
-}
\ No newline at end of file
+
+    // Rotação: consome o token com um único UPDATE condicional; apenas uma requisição concorrente vence
+    @Modifying
+    @Query("UPDATE RefreshToken r SET r.consumedAt = :now, r.familyId = :familyId " +
+           "WHERE r.id = :id AND r.consumedAt IS NULL AND r.revoked = false")
+    int consume(@Param("id") Long id, @Param("familyId") String familyId, @Param("now") LocalDateTime now);
+
+    @Query("SELECT r.consumedAt FROM RefreshToken r WHERE r.id = :id")
+    Optional<LocalDateTime> findConsumedAtById(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE RefreshToken r SET r.revoked = true, r.revokedAt = :now WHERE r.familyId = :familyId AND r.revoked = false")
+    int revokeFamily(@Param("familyId") String familyId, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE RefreshToken r SET r.revoked = true, r.revokedAt = :now WHERE r.id = :id AND r.revoked = false")
+    int revokeById(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    // Sessões ativas do usuário (pelo índice user_id, expiryDate), da mais antiga para a mais nova
+    @Query("SELECT r.id FROM RefreshToken r WHERE r.user.id = :userId AND r.expiryDate > :now " +
+           "AND r.revoked = false AND r.consumedAt IS NULL ORDER BY r.expiryDate ASC, r.id ASC")
+    List<Long> findActiveSessionIds(@Param("userId") Long userId, @Param("now") LocalDateTime now);
+
+    @Query("SELECT r.id AS id, r.userAgent AS userAgent, r.ipAddress AS ipAddress, " +
+           "r.expiryDate AS expiryDate FROM RefreshToken r WHERE r.user.id = :userId AND r.expiryDate > :now " +
+           "AND r.revoked = false AND r.consumedAt IS NULL ORDER BY r.expiryDate DESC")
+    List<SessionView> findActiveSessions(@Param("userId") Long userId, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE RefreshToken r SET r.revoked = true, r.revokedAt = :now WHERE r.id IN :ids AND r.revoked = false")
+    int revokeAllByIdIn(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    // Revoga todas as sessões do usuário, exceto a família informada (sessão atual)
+    @Modifying
+    @Query("UPDATE RefreshToken r SET r.revoked = true, r.revokedAt = :now WHERE r.user.id = :userId " +
+           "AND r.revoked = false AND (r.familyId IS NULL OR r.familyId <> :familyId)")
+    int revokeOtherSessions(@Param("userId") Long userId, @Param("familyId") String familyId,
+                            @Param("now") LocalDateTime now);
+
+    // Limpeza em lotes: seleciona ids pelo índice de expiryDate/revokedAt e remove por chave primária
+    @Query("SELECT r.id FROM RefreshToken r WHERE r.expiryDate < :now")
+    List<Long> findExpiredIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+    @Query("SELECT r.id FROM RefreshToken r WHERE r.revoked = true AND (r.revokedAt IS NULL OR r.revokedAt < :cutoff)")
+    List<Long> findRevokedIdsBefore(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM RefreshToken r WHERE r.id IN :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Estado de vários refresh tokens em uma única consulta (introspecção em lote)
+    @Query("SELECT r.tokenHash AS tokenHash, r.expiryDate AS expiryDate, r.revoked AS revoked, " +
+           "r.consumedAt AS consumedAt, r.tokenVersion AS tokenVersion, u.tokenVersion AS userTokenVersion, " +
+           "u.id AS userId, u.username AS username FROM RefreshToken r JOIN r.user u WHERE r.tokenHash IN :tokenHashes")
+    List<RefreshTokenStatusView> findStatusByTokenHashIn(@Param("tokenHashes") Collection<byte[]> tokenHashes);
+
+    interface RefreshTokenStatusView {
+        byte[] getTokenHash();
+        LocalDateTime getExpiryDate();
+        Boolean getRevoked();
+        LocalDateTime getConsumedAt();
+        long getTokenVersion();
+        long getUserTokenVersion();
+        Long getUserId();
+        String getUsername();
+    }
+
+    interface SessionView {
+        Long getId();
+        String getUserAgent();
+        String getIpAddress();
+        LocalDateTime getExpiryDate();
+    }
+}
@@ -1,10 +1,18 @@
 package com.backend.tessera.repository;
 
 import com.backend.tessera.model.AccountStatus;
+import com.backend.tessera.model.Role;
 import com.backend.tessera.model.User;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,4 +25,60 @@ public interface UserRepository extends JpaRepository<User, Long> {
     // Novos métodos para busca por status
     List<User> findByStatus(AccountStatus status);
     Page<User> findByStatus(AccountStatus status, Pageable pageable);
+
+    // SELECT ... FOR UPDATE: serializa operações por usuário (ex.: limite de sessões no login)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM User u WHERE u.id = :id")
+    Optional<User> findByIdForUpdate(@Param("id") Long id);
+
+    // Invalida todas as credenciais do usuário com um único UPDATE (ver TokenEpochRegistry)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE User u SET u.tokenVersion = u.tokenVersion + 1, u.updatedAt = :now WHERE u.id = :id")
+    int incrementTokenVersion(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Query("SELECT u.tokenVersion FROM User u WHERE u.id = :id")
+    Optional<Long> findTokenVersionById(@Param("id") Long id);
+
+    // Usuários com credenciais já invalidadas ao menos uma vez (carga e ressincronização de TokenEpochRegistry)
+    @Query("SELECT u.id AS id, u.tokenVersion AS tokenVersion FROM User u WHERE u.tokenVersion > 0")
+    List<TokenVersionView> findBumpedTokenVersions();
+
+    // Apenas as versões alteradas desde since (ressincronização incremental de TokenEpochRegistry)
+    @Query("SELECT u.id AS id, u.tokenVersion AS tokenVersion FROM User u " +
+           "WHERE u.updatedAt > :since AND u.tokenVersion > 0")
+    List<TokenVersionView> findBumpedTokenVersionsUpdatedAfter(@Param("since") LocalDateTime since);
+
+    // Contas alteradas desde since, em qualquer instância (ver UserCacheService)
+    @Query("SELECT u.username FROM User u WHERE u.updatedAt > :since")
+    List<String> findUsernamesUpdatedAfter(@Param("since") LocalDateTime since);
+
+    interface TokenVersionView {
+        Long getId();
+        Long getTokenVersion();
+    }
+
+    // Destinatários de um broadcast em ordem de id, a partir do checkpoint (paginação por chave, sem OFFSET)
+    @Query("SELECT u.id AS id, u.email AS email FROM User u WHERE u.id > :afterId " +
+           "AND u.status = com.backend.tessera.model.AccountStatus.ATIVO " +
+           "AND (:role IS NULL OR u.role = :role) AND (:institution IS NULL OR u.institution = :institution) " +
+           "ORDER BY u.id")
+    List<RecipientView> findBroadcastRecipients(@Param("afterId") long afterId, @Param("role") Role role,
+                                                @Param("institution") String institution, Pageable pageable);
+
+    @Query("SELECT COUNT(u) FROM User u WHERE u.status = com.backend.tessera.model.AccountStatus.ATIVO " +
+           "AND (:role IS NULL OR u.role = :role) AND (:institution IS NULL OR u.institution = :institution)")
+    long countBroadcastRecipients(@Param("role") Role role, @Param("institution") String institution);
+
+    interface RecipientView {
+        Long getId();
+        String getEmail();
+    }
+
+    // Troca o hash apenas se ele não mudou desde a leitura (evita sobrescrever uma troca de senha concorrente)
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.password = :newPassword WHERE u.id = :id AND u.password = :currentPassword")
+    int updatePasswordIfUnchanged(@Param("id") Long id,
+                                  @Param("currentPassword") String currentPassword,
+                                  @Param("newPassword") String newPassword);
 }
\ No newline at end of file
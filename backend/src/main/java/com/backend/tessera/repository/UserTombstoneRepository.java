@@ -0,0 +1,25 @@
+package com.backend.tessera.repository;
+
+import com.backend.tessera.model.UserTombstone;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface UserTombstoneRepository extends JpaRepository<UserTombstone, Long> {
+
+    @Query("SELECT t.userId FROM UserTombstone t WHERE t.deletedAt > :since")
+    List<Long> findUserIdsDeletedAfter(@Param("since") LocalDateTime since);
+
+    @Query("SELECT t.username FROM UserTombstone t WHERE t.deletedAt > :since AND t.username IS NOT NULL")
+    List<String> findUsernamesDeletedAfter(@Param("since") LocalDateTime since);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM UserTombstone t WHERE t.deletedAt < :cutoff")
+    int deleteOlderThan(@Param("cutoff") LocalDateTime cutoff);
+}
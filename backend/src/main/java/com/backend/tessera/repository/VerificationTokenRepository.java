@@ -2,12 +2,23 @@ package com.backend.tessera.repository;
 
 import com.backend.tessera.model.VerificationToken;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import java.util.List;
 import java.util.Optional;
 
 public interface VerificationTokenRepository extends JpaRepository<VerificationToken, Long> {
     Optional<VerificationToken> findByToken(String token);
     Optional<VerificationToken> findByUserIdAndTokenType(Long userId, VerificationToken.TokenType tokenType);
+
+    // Token mais recente ainda não utilizado do tipo (pode haver vários tokens do mesmo usuário e tipo)
+    Optional<VerificationToken> findFirstByUserIdAndTokenTypeAndUsedFalseOrderByIdDesc(Long userId,
+                                                                                         VerificationToken.TokenType tokenType);
+
+    @Modifying
+    @Query("UPDATE VerificationToken t SET t.used = true WHERE t.user.id = :userId AND t.tokenType = :tokenType AND t.used = false")
+    int invalidateUnused(@Param("userId") Long userId, @Param("tokenType") VerificationToken.TokenType tokenType);
     
     // Novos métodos para operações mais eficientes
     List<VerificationToken> findByUserId(Long userId);
@@ -3,7 +3,8 @@ package com.backend.tessera.security;
 import com.backend.tessera.config.LoggerConfig;
 import com.backend.tessera.model.AccountStatus;
 import com.backend.tessera.model.User;
-import com.backend.tessera.repository.UserRepository;
+import com.backend.tessera.service.PasswordUpgradeService;
+import com.backend.tessera.service.UserCacheService;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.AuthenticationProvider;
@@ -13,7 +14,6 @@ import org.springframework.security.authentication.LockedException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
 import java.util.Optional;
@@ -26,27 +26,34 @@ public class CustomAuthenticationProvider implements AuthenticationProvider {
     private static final Logger logger = LoggerConfig.getLogger(CustomAuthenticationProvider.class);
 
     @Autowired
-    private UserRepository userRepository;
+    private UserCacheService userCacheService;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingExecutor passwordHashingExecutor;
+
+    @Autowired
+    private PasswordUpgradeService passwordUpgradeService;
 
     @Override
     public Authentication authenticate(Authentication authentication) throws AuthenticationException {
         String username = authentication.getName();
         String password = authentication.getCredentials().toString();
 
-        // Buscar usuário pelo nome de usuário
-        Optional<User> userOpt = userRepository.findByUsername(username);
+        // Reaproveitar o usuário já buscado pelo chamador; caso contrário, buscar pelo nome de usuário
+        Optional<User> userOpt = authentication instanceof ResolvedUserAuthenticationToken resolved
+                ? Optional.ofNullable(resolved.getResolvedUser())
+                : userCacheService.findByUsername(username);
         if (userOpt.isEmpty()) {
             logger.debug("Usuário não encontrado: '{}'", username);
+            // Mesmo custo de uma senha errada, para não revelar quais usuários existem pelo tempo de resposta
+            passwordHashingExecutor.matchesDummy(password);
             throw new BadCredentialsException("Usuário ou senha inválidos");
         }
 
         User user = userOpt.get();
 
-        // Verificar a senha
-        if (!passwordEncoder.matches(password, user.getPassword())) {
+        // Verificar a senha (BCrypt roda no executor dedicado, fora da thread da requisição)
+        if (!passwordHashingExecutor.matches(password, user.getPassword())) {
             logger.debug("Senha inválida para: '{}'", username);
             throw new BadCredentialsException("Usuário ou senha inválidos");
         }
@@ -74,6 +81,11 @@ public class CustomAuthenticationProvider implements AuthenticationProvider {
             logger.warn("Usuário '{}' fazendo login com email não verificado", username);
         }
 
+        // Hash com algoritmo ou custo antigo é regravado em segundo plano
+        if (passwordHashingExecutor.upgradeEncoding(user.getPassword())) {
+            passwordUpgradeService.upgradeAsync(user.getId(), user.getUsername(), user.getPassword(), password);
+        }
+
         // Autenticação bem-sucedida
         logger.info("Autenticação bem-sucedida para: '{}'", username);
         return new UsernamePasswordAuthenticationToken(user, password, user.getAuthorities());
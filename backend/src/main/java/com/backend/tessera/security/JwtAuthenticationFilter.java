@@ -9,6 +9,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -26,9 +27,20 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private VerifiedTokenCache verifiedTokenCache;
+
     @Autowired
     private UserDetailsServiceImpl userDetailsService;
 
+    @Autowired
+    private TokenEpochRegistry tokenEpochRegistry;
+
+    // Modo stateless: autentica apenas pelos claims, sem consultar a tabela users a cada requisição. O status
+    // da conta não é relido; desativação e rejeição só são vistas pela revogação em TokenEpochRegistry
+    @Value("${jwt.stateless.enabled:false}")
+    private boolean statelessEnabled;
+
     @Override
     protected void doFilterInternal(
             @NonNull HttpServletRequest request,
@@ -45,20 +57,21 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         // Ignorar certas URLs (como login, registro e verificação de aprovação)
-        if (requestURI.contains("/api/auth/") || requestURI.contains("/actuator/") || requestURI.contains("/api/system/")) {
+        if (requestURI.contains("/api/auth/") || requestURI.contains("/actuator/") || requestURI.contains("/api/system/")
+                || requestURI.startsWith("/.well-known/")) {
             logger.debug("Pulando autenticação para endpoint público: {}", requestURI);
             filterChain.doFilter(request, response);
             return;
         }
 
-        String username = null;
-        String jwt = null;
+        VerifiedToken verifiedToken;
 
         if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7);
+            String jwt = authorizationHeader.substring(7);
             try {
-                username = jwtUtil.extractUsername(jwt);
-                logger.debug("Usuário extraído do token: {}", username);
+                // Assinatura verificada uma única vez (ou obtida do cache); os claims são reutilizados abaixo
+                verifiedToken = verifiedTokenCache.verify(jwt);
+                logger.debug("Usuário extraído do token: {}", verifiedToken.getUsername());
             } catch (ExpiredJwtException e) {
                 logger.warn("JWT Token expirado");
                 // Não lançar exceção, deixar a autenticação ser rejeitada normalmente
@@ -76,13 +89,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+        if (verifiedToken.getUsername() != null && SecurityContextHolder.getContext().getAuthentication() == null) {
             try {
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+                if (tokenEpochRegistry.isRevoked(verifiedToken.getUserId(), verifiedToken.getTokenVersion())) {
+                    logger.debug("Token revogado para o usuário ID: {}", verifiedToken.getUserId());
+                    filterChain.doFilter(request, response);
+                    return;
+                }
+
+                UserDetails userDetails = resolveUserDetails(verifiedToken);
                 logger.debug("Detalhes do usuário carregados: {}", userDetails.getUsername());
                 logger.debug("Autoridades: {}", userDetails.getAuthorities());
                 
-                boolean isValid = jwtUtil.validateToken(jwt, userDetails);
+                boolean isValid = jwtUtil.validateToken(verifiedToken, userDetails) && userDetails.isEnabled();
                 logger.debug("Token válido? {}", isValid);
                 
                 if (isValid) {
@@ -102,4 +121,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         filterChain.doFilter(request, response);
     }
+
+    /**
+     * No modo stateless o principal é montado apenas com os claims verificados; caso contrário
+     * (ou para tokens antigos sem os claims de identidade) o usuário é carregado do banco.
+     */
+    private UserDetails resolveUserDetails(VerifiedToken verifiedToken) {
+        if (statelessEnabled && verifiedToken.hasIdentityClaims()) {
+            return JwtUserPrincipal.fromToken(verifiedToken);
+        }
+        return this.userDetailsService.loadUserByUsername(verifiedToken.getUsername());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,397 @@
+package com.backend.tessera.security;
+
+import com.backend.tessera.config.LoggerConfig;
+import com.backend.tessera.model.JwtSigningKey;
+import com.backend.tessera.repository.JwtSigningKeyRepository;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.PublicJwk;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PublicKey;
+import java.security.SecureRandom;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Chaves de assinatura dos access tokens, indexadas pelo kid.
+ *
+ * Com jwt.signing.algorithm=HS256 (padrão) os tokens são assinados com jwt.secret. Com ES256 ou EdDSA os pares
+ * de chaves ficam na tabela jwt_signing_keys, compartilhada por todas as instâncias, com a chave privada cifrada
+ * (AES-GCM, chave derivada de jwt.secret); as chaves públicas são publicadas em /.well-known/jwks.json para que
+ * outros serviços validem os tokens localmente. Assim um token emitido por uma instância é aceito pelas demais e
+ * sobrevive a um restart.
+ *
+ * Cada instância relê a tabela a cada jwt.signing.refresh-interval e, quando a chave mais nova completa
+ * jwt.signing.rotation-interval, insere a próxima geração; a restrição única de (algorithm, generation) faz com
+ * que só uma instância rotacione. A chave nova é publicada jwt.signing.publish-ahead antes de passar a assinar,
+ * prazo em que todas as instâncias (refresh-interval deve ser menor) e os clientes com o JWKS em cache já a
+ * conhecem. A chave substituída continua aceita por jwt.expiration, prazo dos tokens que ela assinou.
+ */
+@Component
+public class JwtKeyRing {
+    private static final Logger logger = LoggerConfig.getLogger(JwtKeyRing.class);
+
+    static final String ALGORITHM_HS256 = "HS256";
+    static final String ALGORITHM_ES256 = "ES256";
+    static final String ALGORITHM_EDDSA = "EdDSA";
+
+    private static final String HMAC_KID = "hmac";
+    private static final int GCM_IV_BYTES = 12;
+    private static final int GCM_TAG_BITS = 128;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    @Autowired
+    private JwtSigningKeyRepository keyRepository;
+
+    @Value("${jwt.secret}")
+    private String secretString;
+
+    @Value("${jwt.expiration}")
+    private long jwtExpirationInMs;
+
+    @Value("${jwt.signing.algorithm:HS256}")
+    private String algorithm;
+
+    @Value("${jwt.signing.publish-ahead:600000}")
+    private long publishAheadMs;
+
+    @Value("${jwt.signing.rotation-interval:86400000}")
+    private long rotationIntervalMs;
+
+    // Só vale com ES256/EdDSA: tokens HS256 sem kid (emitidos antes da troca de algoritmo) são aceitos apenas
+    // enquanto true; ligar durante a migração e desligar depois de jwt.expiration. No modo HS256 tokens sem kid
+    // (emitidos antes da introdução do kid) são sempre aceitos, pois são assinados com a mesma chave
+    @Value("${jwt.signing.accept-legacy-hmac:false}")
+    private boolean acceptLegacyHmac;
+
+    private SecretKey hmacKey;
+    // Cifra as chaves privadas gravadas no banco
+    private SecretKey wrappingKey;
+
+    // Substituído por inteiro a cada leitura da tabela
+    private volatile Map<String, SigningKey> keysById = Map.of();
+
+    // Chaves ordenadas da mais nova para a mais antiga; substituída por inteiro a cada rotação
+    private volatile List<SigningKey> keysNewestFirst = List.of();
+    private volatile String jwksEtag;
+
+    @PostConstruct
+    public void init() {
+        try {
+            // Se a chave já é base64, podemos decodificá-la diretamente
+            byte[] keyBytes = Decoders.BASE64.decode(secretString);
+            this.hmacKey = Keys.hmacShaKeyFor(keyBytes);
+        } catch (Exception e) {
+            // Se falhar na decodificação (chave não está em base64), vamos tratar como string normal
+            logger.info("Usando chave JWT em formato de string normal");
+            this.hmacKey = Keys.hmacShaKeyFor(secretString.getBytes());
+        }
+
+        if (isAsymmetric()) {
+            this.wrappingKey = new SecretKeySpec(sha256Bytes("tessera-jwt-signing-key:" + secretString), "AES");
+            reload();
+            if (keysNewestFirst.isEmpty()) {
+                // Primeira instância: a chave assina imediatamente, não há tokens nem JWKS em cache
+                insertNextKey(Instant.now());
+            }
+        } else if (!ALGORITHM_HS256.equalsIgnoreCase(algorithm)) {
+            throw new IllegalStateException("Algoritmo de assinatura JWT não suportado: " + algorithm);
+        } else {
+            SigningKey key = new SigningKey(HMAC_KID, hmacKey, hmacKey, null, 0L, Instant.EPOCH, Instant.EPOCH, null);
+            keysById = Map.of(HMAC_KID, key);
+            refreshSnapshot();
+        }
+        logger.info("Chaves JWT inicializadas (algoritmo: {})", algorithm);
+    }
+
+    /**
+     * Relê as chaves compartilhadas e rotaciona se a mais nova completou jwt.signing.rotation-interval
+     */
+    @Scheduled(initialDelayString = "${jwt.signing.refresh-interval:60000}",
+            fixedDelayString = "${jwt.signing.refresh-interval:60000}")
+    public void refresh() {
+        if (!isAsymmetric()) {
+            return;
+        }
+        reload();
+        Instant now = Instant.now();
+        SigningKey newest = keysNewestFirst.isEmpty() ? null : keysNewestFirst.get(0);
+        if (newest == null || !newest.createdAt.plusMillis(rotationIntervalMs).isAfter(now)) {
+            rotate();
+        }
+    }
+
+    /**
+     * Publica um novo par de chaves; a chave atual segue válida para verificação até seus tokens expirarem
+     */
+    public synchronized void rotate() {
+        if (!isAsymmetric()) {
+            return;
+        }
+        Instant now = Instant.now();
+        Instant activateAt = keysNewestFirst.isEmpty() ? now : now.plusMillis(publishAheadMs);
+        insertNextKey(activateAt);
+        purgeRetired(now);
+    }
+
+    /**
+     * Grava a próxima geração de chave; se outra instância gravou antes, apenas relê a tabela
+     */
+    private synchronized void insertNextKey(Instant activateAt) {
+        long generation = keyRepository.findByAlgorithmOrderByGenerationAsc(algorithm).stream()
+                .mapToLong(JwtSigningKey::getGeneration)
+                .max()
+                .orElse(0L) + 1;
+        KeyPair keyPair = generateKeyPair();
+        PublicJwk<?> jwk = toJwk(keyPair.getPublic());
+
+        JwtSigningKey row = new JwtSigningKey();
+        row.setAlgorithm(algorithm);
+        row.setGeneration(generation);
+        row.setKid(jwk.getId());
+        row.setPublicKey(Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded()));
+        row.setPrivateKey(seal(keyPair.getPrivate().getEncoded(), jwk.getId()));
+        row.setCreatedAt(Instant.now());
+        row.setActivateAt(activateAt);
+        try {
+            keyRepository.save(row);
+            logger.info("Nova chave JWT publicada (geração {}); passa a assinar em {}", generation, activateAt);
+        } catch (DataIntegrityViolationException e) {
+            logger.debug("Geração {} da chave JWT já criada por outra instância", generation);
+        }
+        reload();
+    }
+
+    /**
+     * Reconstrói o conjunto de chaves a partir da tabela. Cada chave é retirada jwt.expiration depois que a
+     * geração seguinte passa a assinar
+     */
+    private synchronized void reload() {
+        List<JwtSigningKey> rows = keyRepository.findByAlgorithmOrderByGenerationAsc(algorithm);
+        Map<String, SigningKey> loaded = new LinkedHashMap<>();
+        for (int i = 0; i < rows.size(); i++) {
+            JwtSigningKey row = rows.get(i);
+            Instant retireAt = i + 1 < rows.size()
+                    ? rows.get(i + 1).getActivateAt().plusMillis(jwtExpirationInMs)
+                    : null;
+            try {
+                loaded.put(row.getKid(), toSigningKey(row, retireAt));
+            } catch (GeneralSecurityException | IllegalArgumentException e) {
+                // Ex.: jwt.secret trocado; a chave não pode ser usada, a próxima rotação a substitui
+                logger.error("Chave JWT {} (geração {}) ilegível: {}", row.getKid(), row.getGeneration(), e.getMessage());
+            }
+        }
+        keysById = Map.copyOf(loaded);
+        refreshSnapshot();
+    }
+
+    /**
+     * Chave usada para assinar novos tokens: a mais nova já ativada
+     */
+    public SigningKey activeKey() {
+        Instant now = Instant.now();
+        for (SigningKey key : keysNewestFirst) {
+            if (!key.activateAt.isAfter(now)) {
+                return key;
+            }
+        }
+        throw new IllegalStateException("Nenhuma chave JWT ativa");
+    }
+
+    /**
+     * Resolve a chave de verificação a partir do kid do cabeçalho do token
+     */
+    public LocatorAdapter<Key> keyLocator() {
+        return new LocatorAdapter<>() {
+            @Override
+            protected Key locate(JwsHeader header) {
+                String kid = header.getKeyId();
+                if (kid == null) {
+                    if (acceptLegacyHmac || !isAsymmetric()) {
+                        return hmacKey;
+                    }
+                    throw new UnsupportedJwtException("Token sem kid");
+                }
+                SigningKey key = keysById.get(kid);
+                if (key == null) {
+                    throw new UnsupportedJwtException("Chave de assinatura desconhecida: " + kid);
+                }
+                return key.verificationKey;
+            }
+        };
+    }
+
+    /**
+     * Documento JWKS com as chaves públicas publicadas (vazio no modo HS256)
+     */
+    public Map<String, Object> jwks() {
+        List<Map<String, ?>> keys = new ArrayList<>();
+        for (SigningKey key : keysNewestFirst) {
+            if (key.publicJwk != null) {
+                keys.add(key.publicJwk);
+            }
+        }
+        Map<String, Object> jwks = new LinkedHashMap<>();
+        jwks.put("keys", keys);
+        return jwks;
+    }
+
+    /**
+     * ETag do documento JWKS; muda somente quando o conjunto de chaves muda
+     */
+    public String jwksEtag() {
+        return jwksEtag;
+    }
+
+    private boolean isAsymmetric() {
+        return ALGORITHM_ES256.equalsIgnoreCase(algorithm) || ALGORITHM_EDDSA.equalsIgnoreCase(algorithm);
+    }
+
+    private KeyPair generateKeyPair() {
+        return ALGORITHM_ES256.equalsIgnoreCase(algorithm)
+                ? Jwts.SIG.ES256.keyPair().build()
+                : Jwts.SIG.EdDSA.keyPair().build();
+    }
+
+    private PublicJwk<?> toJwk(PublicKey publicKey) {
+        return ALGORITHM_ES256.equalsIgnoreCase(algorithm)
+                ? Jwks.builder().key(publicKey).algorithm(ALGORITHM_ES256).publicKeyUse("sig").idFromThumbprint().build()
+                : Jwks.builder().octetKey(publicKey).algorithm(ALGORITHM_EDDSA).publicKeyUse("sig").idFromThumbprint().build();
+    }
+
+    private SigningKey toSigningKey(JwtSigningKey row, Instant retireAt) throws GeneralSecurityException {
+        KeyFactory keyFactory = KeyFactory.getInstance(ALGORITHM_ES256.equalsIgnoreCase(algorithm) ? "EC" : "EdDSA");
+        PublicKey publicKey = keyFactory.generatePublic(
+                new X509EncodedKeySpec(Base64.getDecoder().decode(row.getPublicKey())));
+        Key privateKey = keyFactory.generatePrivate(new PKCS8EncodedKeySpec(unseal(row.getPrivateKey(), row.getKid())));
+        return new SigningKey(row.getKid(), privateKey, publicKey, new LinkedHashMap<>(toJwk(publicKey)),
+                row.getGeneration(), row.getCreatedAt(), row.getActivateAt(), retireAt);
+    }
+
+    /**
+     * Remove da tabela as chaves retiradas, mantendo sempre a mais nova
+     */
+    private synchronized void purgeRetired(Instant now) {
+        long oldestKept = Long.MAX_VALUE;
+        for (SigningKey key : keysNewestFirst) {
+            if (key.retireAt == null || !key.retireAt.isBefore(now)) {
+                oldestKept = Math.min(oldestKept, key.generation);
+            }
+        }
+        if (oldestKept != Long.MAX_VALUE && keyRepository.deleteOlderThan(algorithm, oldestKept) > 0) {
+            reload();
+            logger.info("Chaves JWT expiradas removidas; {} chaves ativas", keysById.size());
+        }
+    }
+
+    private String seal(byte[] plaintext, String kid) {
+        try {
+            byte[] iv = new byte[GCM_IV_BYTES];
+            RANDOM.nextBytes(iv);
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.ENCRYPT_MODE, wrappingKey, new GCMParameterSpec(GCM_TAG_BITS, iv));
+            cipher.updateAAD(kid.getBytes(StandardCharsets.UTF_8));
+            byte[] ciphertext = cipher.doFinal(plaintext);
+            return Base64.getEncoder().encodeToString(ByteBuffer.allocate(iv.length + ciphertext.length)
+                    .put(iv).put(ciphertext).array());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Falha ao cifrar a chave JWT", e);
+        }
+    }
+
+    private byte[] unseal(String sealed, String kid) throws GeneralSecurityException {
+        byte[] bytes = Base64.getDecoder().decode(sealed);
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.DECRYPT_MODE, wrappingKey, new GCMParameterSpec(GCM_TAG_BITS, bytes, 0, GCM_IV_BYTES));
+        cipher.updateAAD(kid.getBytes(StandardCharsets.UTF_8));
+        return cipher.doFinal(bytes, GCM_IV_BYTES, bytes.length - GCM_IV_BYTES);
+    }
+
+    private void refreshSnapshot() {
+        List<SigningKey> ordered = new ArrayList<>(keysById.values());
+        ordered.sort(Comparator.comparing((SigningKey key) -> key.activateAt).reversed());
+        this.keysNewestFirst = List.copyOf(ordered);
+
+        StringBuilder kids = new StringBuilder(algorithm.toLowerCase(Locale.ROOT));
+        ordered.forEach(key -> kids.append(',').append(key.kid));
+        this.jwksEtag = "\"" + sha256(kids.toString()) + "\"";
+    }
+
+    private static String sha256(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(sha256Bytes(value)).substring(0, 16);
+    }
+
+    private static byte[] sha256Bytes(String value) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 não disponível", e);
+        }
+    }
+
+    /**
+     * Chave de assinatura identificada pelo kid
+     */
+    public static final class SigningKey {
+        private final String kid;
+        private final Key signingKey;
+        private final Key verificationKey;
+        private final Map<String, ?> publicJwk;
+        private final long generation;
+        private final Instant createdAt;
+        private final Instant activateAt;
+        private final Instant retireAt;
+
+        private SigningKey(String kid, Key signingKey, Key verificationKey, Map<String, ?> publicJwk, long generation,
+                           Instant createdAt, Instant activateAt, Instant retireAt) {
+            this.kid = kid;
+            this.signingKey = signingKey;
+            this.verificationKey = verificationKey;
+            this.publicJwk = publicJwk;
+            this.generation = generation;
+            this.createdAt = createdAt;
+            this.activateAt = activateAt;
+            this.retireAt = retireAt;
+        }
+
+        public String getKid() {
+            return kid;
+        }
+
+        public Key getSigningKey() {
+            return signingKey;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.backend.tessera.security;
+
+import com.backend.tessera.model.AccountStatus;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Principal construído apenas a partir dos claims de um JWT verificado (modo stateless).
+ * Não carrega senha nem qualquer outro dado que exija consulta ao banco.
+ */
+public final class JwtUserPrincipal implements UserDetails {
+    private final Long id;
+    private final String username;
+    private final AccountStatus status;
+    private final List<GrantedAuthority> authorities;
+
+    private JwtUserPrincipal(Long id, String username, AccountStatus status, List<GrantedAuthority> authorities) {
+        this.id = id;
+        this.username = username;
+        this.status = status;
+        this.authorities = authorities;
+    }
+
+    public static JwtUserPrincipal fromToken(VerifiedToken token) {
+        List<GrantedAuthority> authorities = token.getRoles().stream()
+                .<GrantedAuthority>map(SimpleGrantedAuthority::new)
+                .toList();
+        return new JwtUserPrincipal(
+                token.getUserId(),
+                token.getUsername(),
+                AccountStatus.valueOf(token.getStatus()),
+                authorities);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public AccountStatus getStatus() {
+        return status;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return status == AccountStatus.ATIVO;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return status == AccountStatus.ATIVO;
+    }
+
+    @Override
+    public String toString() {
+        return "JwtUserPrincipal[id=" + id + ", username=" + username + ", status=" + status + "]";
+    }
+}
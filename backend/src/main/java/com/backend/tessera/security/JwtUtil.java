@@ -1,50 +1,79 @@
 package com.backend.tessera.security;
 
 import com.backend.tessera.config.LoggerConfig;
+import com.backend.tessera.model.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
 import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.function.Function;
 import java.util.stream.Collectors;
-import javax.crypto.SecretKey;
 
 @Component
 public class JwtUtil {
     private static final Logger logger = LoggerConfig.getLogger(JwtUtil.class);
 
-    @Value("${jwt.secret}")
-    private String secretString;
+    static final String CLAIM_ROLES = "roles";
+    static final String CLAIM_USER_ID = "uid";
+    static final String CLAIM_STATUS = "status";
+    static final String CLAIM_TOKEN_VERSION = "ver";
 
     @Value("${jwt.expiration}")
     private long jwtExpirationInMs;
-    
-    private SecretKey key;
+
+    @Autowired
+    private JwtKeyRing keyRing;
+
+    // Parser imutável e thread-safe, construído uma única vez em init()
+    private JwtParser jwtParser;
 
     @PostConstruct
     public void init() {
-        try {
-            // Se a chave já é base64, podemos decodificá-la diretamente
-            byte[] keyBytes = Decoders.BASE64.decode(secretString);
-            this.key = Keys.hmacShaKeyFor(keyBytes);
-            logger.debug("JwtUtil inicializado com sucesso usando a chave em Base64");
-        } catch (Exception e) {
-            // Se falhar na decodificação (chave não está em base64), vamos tratar como string normal
-            logger.info("Usando chave JWT em formato de string normal");
-            // Criar uma chave de 256 bits para HS256 (32 bytes)
-            this.key = Keys.hmacShaKeyFor(secretString.getBytes());
-            logger.debug("JwtUtil inicializado");
-        }
+        // A chave de verificação é escolhida pelo kid do cabeçalho (ver JwtKeyRing)
+        this.jwtParser = Jwts.parser()
+                .keyLocator(keyRing.keyLocator())
+                .build();
+        logger.debug("JwtUtil inicializado");
+    }
+
+    /**
+     * Verifica a assinatura do token uma única vez e devolve os claims já validados.
+     * Lança ExpiredJwtException para tokens expirados e JwtException para tokens inválidos.
+     */
+    public VerifiedToken verify(String token) {
+        Claims claims = extractAllClaims(token);
+        return new VerifiedToken(
+                claims.getSubject(),
+                toLong(claims.get(CLAIM_USER_ID)),
+                claims.get(CLAIM_STATUS, String.class),
+                toTokenVersion(claims.get(CLAIM_TOKEN_VERSION)),
+                toInstant(claims.getIssuedAt()),
+                toInstant(claims.getExpiration()),
+                VerifiedToken.parseRoles(claims.get(CLAIM_ROLES)));
+    }
+
+    private static Instant toInstant(Date date) {
+        return date != null ? date.toInstant() : null;
+    }
+
+    private static Long toLong(Object value) {
+        return value instanceof Number number ? number.longValue() : null;
+    }
+
+    // Tokens emitidos antes do claim "ver" equivalem à versão 0
+    private static long toTokenVersion(Object value) {
+        return value instanceof Number number ? number.longValue() : 0L;
     }
 
     public String extractUsername(String token) {
@@ -62,9 +91,7 @@ public class JwtUtil {
 
     private Claims extractAllClaims(String token) {
         try {
-            return Jwts.parser()
-                    .verifyWith(key)
-                    .build()
+            return jwtParser
                     .parseSignedClaims(token)
                     .getPayload();
         } catch (Exception e) {
@@ -73,21 +100,19 @@ public class JwtUtil {
         }
     }
 
-    private Boolean isTokenExpired(String token) {
-        try {
-            return extractExpiration(token).before(new Date());
-        } catch (Exception e) {
-            logger.warn("Não foi possível determinar a expiração do token: {}", e.getMessage());
-            return true;
-        }
-    }
-
     public String generateToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
         String roles = userDetails.getAuthorities().stream()
                 .map(GrantedAuthority::getAuthority)
                 .collect(Collectors.joining(","));
-        claims.put("roles", roles);
+        claims.put(CLAIM_ROLES, roles);
+
+        // Identidade e status embutidos permitem a autenticação apenas por claims (jwt.stateless.enabled)
+        if (userDetails instanceof User user && user.getId() != null) {
+            claims.put(CLAIM_USER_ID, user.getId());
+            claims.put(CLAIM_STATUS, user.getStatus().name());
+            claims.put(CLAIM_TOKEN_VERSION, user.getTokenVersion());
+        }
         
         logger.debug("Gerando token para usuário: {} com roles: {}", userDetails.getUsername(), roles);
         return createToken(claims, userDetails.getUsername());
@@ -99,13 +124,15 @@ public class JwtUtil {
         
         logger.debug("Token válido de {} até {}", now, expiryDate);
         
+        JwtKeyRing.SigningKey signingKey = keyRing.activeKey();
         try {
             return Jwts.builder()
+                    .header().keyId(signingKey.getKid()).and()
                     .claims(claims)
                     .subject(subject)
                     .issuedAt(now)
                     .expiration(expiryDate)
-                    .signWith(key)
+                    .signWith(signingKey.getSigningKey())
                     .compact();
         } catch (Exception e) {
             logger.error("Erro ao criar token: {}", e.getMessage(), e);
@@ -115,13 +142,21 @@ public class JwtUtil {
 
     public Boolean validateToken(String token, UserDetails userDetails) {
         try {
-            final String username = extractUsername(token);
-            boolean isValid = username.equals(userDetails.getUsername()) && !isTokenExpired(token);
-            logger.debug("Validando token para {}: {}", username, isValid);
-            return isValid;
+            return validateToken(verify(token), userDetails);
         } catch (Exception e) {
             logger.error("Erro na validação do token: {}", e.getMessage());
             return false;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Valida um token já verificado contra o usuário carregado, sem novo parse
+     */
+    public boolean validateToken(VerifiedToken verifiedToken, UserDetails userDetails) {
+        boolean isValid = verifiedToken.getUsername() != null
+                && verifiedToken.getUsername().equals(userDetails.getUsername())
+                && !verifiedToken.isExpired();
+        logger.debug("Validando token para {}: {}", verifiedToken.getUsername(), isValid);
+        return isValid;
+    }
+}
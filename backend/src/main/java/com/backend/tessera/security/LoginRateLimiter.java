@@ -0,0 +1,127 @@
+package com.backend.tessera.security;
+
+import com.backend.tessera.config.LoggerConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limita as tentativas de login por username e por endereço IP, antes de qualquer acesso ao banco ou hashing.
+ */
+@Component
+public class LoginRateLimiter {
+    private static final Logger logger = LoggerConfig.getLogger(LoginRateLimiter.class);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.security.login-rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.security.login-rate-limit.username.capacity:10}")
+    private int usernameCapacity;
+
+    @Value("${app.security.login-rate-limit.username.refill-tokens:10}")
+    private int usernameRefillTokens;
+
+    @Value("${app.security.login-rate-limit.ip.capacity:50}")
+    private int ipCapacity;
+
+    @Value("${app.security.login-rate-limit.ip.refill-tokens:50}")
+    private int ipRefillTokens;
+
+    @Value("${app.security.login-rate-limit.refill-period:60000}")
+    private long refillPeriodMs;
+
+    @Value("${app.security.login-rate-limit.stripes:64}")
+    private int stripes;
+
+    private StripedTokenBucketLimiter byUsername;
+    private StripedTokenBucketLimiter byIp;
+    private Counter allowedCounter;
+    private Counter rejectedByUsernameCounter;
+    private Counter rejectedByIpCounter;
+
+    @PostConstruct
+    public void init() {
+        this.byUsername = new StripedTokenBucketLimiter(usernameCapacity, usernameRefillTokens, refillPeriodMs, stripes);
+        this.byIp = new StripedTokenBucketLimiter(ipCapacity, ipRefillTokens, refillPeriodMs, stripes);
+
+        this.allowedCounter = Counter.builder("tessera.login.ratelimit.decisions")
+                .tag("result", "allowed")
+                .description("Decisões do limitador de tentativas de login")
+                .register(meterRegistry);
+        this.rejectedByUsernameCounter = Counter.builder("tessera.login.ratelimit.decisions")
+                .tag("result", "rejected").tag("limiter", "username")
+                .description("Decisões do limitador de tentativas de login")
+                .register(meterRegistry);
+        this.rejectedByIpCounter = Counter.builder("tessera.login.ratelimit.decisions")
+                .tag("result", "rejected").tag("limiter", "ip")
+                .description("Decisões do limitador de tentativas de login")
+                .register(meterRegistry);
+        Gauge.builder("tessera.login.ratelimit.keys", byUsername, StripedTokenBucketLimiter::size)
+                .tag("limiter", "username")
+                .description("Chaves com bucket ativo no limitador de login")
+                .register(meterRegistry);
+        Gauge.builder("tessera.login.ratelimit.keys", byIp, StripedTokenBucketLimiter::size)
+                .tag("limiter", "ip")
+                .description("Chaves com bucket ativo no limitador de login")
+                .register(meterRegistry);
+
+        logger.info("Limitador de login {} (username: {}, IP: {} tentativas a cada {} ms)",
+                enabled ? "ativo" : "desativado", usernameCapacity, ipCapacity, refillPeriodMs);
+    }
+
+    /**
+     * Registra uma tentativa de login.
+     *
+     * @return 0 se a tentativa pode prosseguir; caso contrário, os segundos a aguardar (Retry-After)
+     */
+    public long tryAcquire(String username, String ipAddress) {
+        if (!enabled) {
+            return 0L;
+        }
+
+        // O IP é verificado primeiro para que um cliente bloqueado não consuma os tokens da vítima
+        long waitNanos = byIp.tryAcquire(ipAddress == null ? "" : ipAddress);
+        if (waitNanos > 0) {
+            rejectedByIpCounter.increment();
+            logger.warn("Tentativas de login excedidas para o IP: {}", ipAddress);
+            return toRetryAfterSeconds(waitNanos);
+        }
+
+        waitNanos = byUsername.tryAcquire(username == null ? "" : username.toLowerCase(Locale.ROOT));
+        if (waitNanos > 0) {
+            rejectedByUsernameCounter.increment();
+            logger.warn("Tentativas de login excedidas para o usuário: {}", username);
+            return toRetryAfterSeconds(waitNanos);
+        }
+
+        allowedCounter.increment();
+        return 0L;
+    }
+
+    /**
+     * Descarta periodicamente os buckets de chaves ociosas
+     */
+    @Scheduled(fixedDelayString = "${app.security.login-rate-limit.sweep-interval:60000}")
+    public void sweepIdleKeys() {
+        int removed = byUsername.sweep() + byIp.sweep();
+        if (removed > 0) {
+            logger.debug("Limitador de login: {} chaves ociosas removidas", removed);
+        }
+    }
+
+    private static long toRetryAfterSeconds(long waitNanos) {
+        return Math.max(1L, (long) Math.ceil(waitNanos / (double) TimeUnit.SECONDS.toNanos(1)));
+    }
+}
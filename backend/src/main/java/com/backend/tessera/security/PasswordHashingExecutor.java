@@ -0,0 +1,189 @@
+package com.backend.tessera.security;
+
+import com.backend.tessera.config.LoggerConfig;
+import com.backend.tessera.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executor dedicado ao hashing de senhas (BCrypt).
+ *
+ * O hashing é caro em CPU; executá-lo diretamente nas threads do Tomcat permite que uma rajada de logins
+ * ocupe todos os workers. Aqui o trabalho roda em um pool de tamanho fixo com fila limitada: quando a fila
+ * está cheia a requisição falha imediatamente com ServiceOverloadedException (503 + Retry-After), e as
+ * demais requisições continuam sendo atendidas.
+ */
+@Component
+public class PasswordHashingExecutor {
+    private static final Logger logger = LoggerConfig.getLogger(PasswordHashingExecutor.class);
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // 0 = número de processadores disponíveis
+    @Value("${app.security.hashing.threads:0}")
+    private int threads;
+
+    @Value("${app.security.hashing.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${app.security.hashing.timeout:5000}")
+    private long timeoutMs;
+
+    @Value("${app.security.hashing.retry-after:2}")
+    private long retryAfterSeconds;
+
+    private ThreadPoolExecutor executor;
+    private Timer matchesTimer;
+    private Timer encodeTimer;
+    private Timer queueWaitTimer;
+    private Counter rejectedCounter;
+
+    // Hash de uma senha aleatória, usado para igualar o custo de logins com usuário inexistente
+    private String dummyHash;
+
+    @PostConstruct
+    public void init() {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(
+                poolSize, poolSize,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new HashingThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.matchesTimer = Timer.builder("tessera.password.hashing.duration")
+                .tag("operation", "matches")
+                .description("Tempo de CPU gasto no hashing de senhas")
+                .register(meterRegistry);
+        this.encodeTimer = Timer.builder("tessera.password.hashing.duration")
+                .tag("operation", "encode")
+                .description("Tempo de CPU gasto no hashing de senhas")
+                .register(meterRegistry);
+        this.queueWaitTimer = Timer.builder("tessera.password.hashing.queue.wait")
+                .description("Tempo de espera na fila do executor de hashing")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("tessera.password.hashing.rejected")
+                .description("Requisições recusadas por fila de hashing cheia")
+                .register(meterRegistry);
+        Gauge.builder("tessera.password.hashing.queue.size", executor, e -> e.getQueue().size())
+                .description("Tarefas de hashing aguardando na fila")
+                .register(meterRegistry);
+        Gauge.builder("tessera.password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Tarefas de hashing em execução")
+                .register(meterRegistry);
+
+        this.dummyHash = passwordEncoder.encode(UUID.randomUUID().toString());
+
+        logger.info("Executor de hashing de senhas inicializado (threads: {}, fila: {})", poolSize, queueCapacity);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Verifica a senha informada contra o hash armazenado
+     */
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(matchesTimer, () -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Gera o hash da senha informada
+     */
+    public String encode(CharSequence rawPassword) {
+        return execute(encodeTimer, () -> passwordEncoder.encode(rawPassword));
+    }
+
+    /**
+     * Compara a senha com um hash pré-calculado que nunca corresponde a ela.
+     * Usado quando o usuário não existe, para que a rejeição custe o mesmo que uma senha errada.
+     */
+    public void matchesDummy(CharSequence rawPassword) {
+        matches(rawPassword, dummyHash);
+    }
+
+    /**
+     * Indica se o hash deve ser regravado (algoritmo antigo ou custo menor que o atual).
+     * Apenas analisa o prefixo do hash, por isso roda na própria thread do chamador.
+     */
+    public boolean upgradeEncoding(String encodedPassword) {
+        return encodedPassword != null && passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T execute(Timer timer, Callable<T> task) {
+        long enqueuedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                queueWaitTimer.record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+                return timer.recordCallable(task);
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            logger.warn("Fila de hashing de senhas cheia ({} tarefas); requisição recusada", executor.getQueue().size());
+            throw overloaded();
+        }
+
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejectedCounter.increment();
+            logger.warn("Hashing de senha excedeu o tempo limite de {} ms", timeoutMs);
+            throw overloaded();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Hashing de senha interrompido", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Falha no hashing de senha", cause);
+        }
+    }
+
+    private ServiceOverloadedException overloaded() {
+        return new ServiceOverloadedException(
+                "Servidor ocupado no momento. Tente novamente em instantes.", retryAfterSeconds);
+    }
+
+    private static final class HashingThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "password-hashing-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.backend.tessera.security;
+
+import com.backend.tessera.model.User;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+/**
+ * Pedido de autenticação por usuário e senha em que o usuário já foi buscado pelo chamador.
+ *
+ * Permite que o LoginController faça uma única consulta e a repasse ao CustomAuthenticationProvider,
+ * em vez de cada etapa do login buscar o mesmo usuário novamente. Um usuário nulo indica que a busca
+ * foi feita e não encontrou ninguém.
+ */
+public class ResolvedUserAuthenticationToken extends UsernamePasswordAuthenticationToken {
+
+    private final User resolvedUser;
+
+    public ResolvedUserAuthenticationToken(String username, String password, User resolvedUser) {
+        super(username, password);
+        this.resolvedUser = resolvedUser;
+    }
+
+    public User getResolvedUser() {
+        return resolvedUser;
+    }
+}
@@ -0,0 +1,117 @@
+package com.backend.tessera.security;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Limitador de taxa por chave usando token buckets, com locks distribuídos em faixas (lock striping).
+ *
+ * Cada chave tem um bucket com capacidade fixa que é reabastecido continuamente. O estado do bucket é
+ * protegido pelo lock da faixa correspondente ao hash da chave, de modo que chaves diferentes raramente
+ * disputam o mesmo lock. Depois de criado, o bucket é reutilizado sem novas alocações por tentativa.
+ * Buckets que voltaram a ficar cheios (chave ociosa) são removidos por sweep().
+ */
+public class StripedTokenBucketLimiter {
+
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final Object[] locks;
+    private final int stripeMask;
+    private final double capacity;
+    private final double tokensPerNano;
+    private final LongSupplier nanoClock;
+
+    public StripedTokenBucketLimiter(int capacity, int refillTokens, long refillPeriodMs, int stripes) {
+        this(capacity, refillTokens, refillPeriodMs, stripes, System::nanoTime);
+    }
+
+    StripedTokenBucketLimiter(int capacity, int refillTokens, long refillPeriodMs, int stripes, LongSupplier nanoClock) {
+        if (capacity <= 0 || refillTokens <= 0 || refillPeriodMs <= 0) {
+            throw new IllegalArgumentException("Capacidade e taxa de reabastecimento devem ser positivas");
+        }
+        int stripeCount = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.locks = new Object[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            locks[i] = new Object();
+        }
+        this.stripeMask = stripeCount - 1;
+        this.capacity = capacity;
+        this.tokensPerNano = refillTokens / (double) TimeUnit.MILLISECONDS.toNanos(refillPeriodMs);
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Consome um token da chave.
+     *
+     * @return 0 se a tentativa foi permitida; caso contrário, os nanossegundos até o próximo token
+     */
+    public long tryAcquire(String key) {
+        Object lock = locks[spread(key.hashCode()) & stripeMask];
+        while (true) {
+            Bucket bucket = buckets.computeIfAbsent(key, k -> new Bucket(capacity, nanoClock.getAsLong()));
+            synchronized (lock) {
+                if (bucket.removed) {
+                    // Removido por sweep() entre a busca e o lock; usar o bucket novo
+                    continue;
+                }
+                long now = nanoClock.getAsLong();
+                bucket.refill(now, capacity, tokensPerNano);
+                if (bucket.tokens >= 1.0) {
+                    bucket.tokens -= 1.0;
+                    return 0L;
+                }
+                return Math.max(1L, (long) Math.ceil((1.0 - bucket.tokens) / tokensPerNano));
+            }
+        }
+    }
+
+    /**
+     * Remove os buckets que já se reabasteceram por completo; recriá-los depois dá o mesmo resultado
+     *
+     * @return quantidade de chaves removidas
+     */
+    public int sweep() {
+        long now = nanoClock.getAsLong();
+        int removed = 0;
+        for (Map.Entry<String, Bucket> entry : buckets.entrySet()) {
+            Object lock = locks[spread(entry.getKey().hashCode()) & stripeMask];
+            synchronized (lock) {
+                Bucket bucket = entry.getValue();
+                bucket.refill(now, capacity, tokensPerNano);
+                if (bucket.tokens >= capacity && buckets.remove(entry.getKey(), bucket)) {
+                    bucket.removed = true;
+                    removed++;
+                }
+            }
+        }
+        return removed;
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static final class Bucket {
+        double tokens;
+        long lastRefillNanos;
+        boolean removed;
+
+        Bucket(double tokens, long now) {
+            this.tokens = tokens;
+            this.lastRefillNanos = now;
+        }
+
+        void refill(long now, double capacity, double tokensPerNano) {
+            long elapsed = now - lastRefillNanos;
+            if (elapsed > 0) {
+                tokens = Math.min(capacity, tokens + elapsed * tokensPerNano);
+                lastRefillNanos = now;
+            }
+        }
+    }
+}
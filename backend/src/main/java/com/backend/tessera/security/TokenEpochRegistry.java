@@ -0,0 +1,156 @@
+package com.backend.tessera.security;
+
+import com.backend.tessera.config.LoggerConfig;
+import com.backend.tessera.repository.UserRepository;
+import com.backend.tessera.repository.UserRepository.TokenVersionView;
+import com.backend.tessera.repository.UserTombstoneRepository;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Versão atual das credenciais de cada usuário (User.tokenVersion), mantida em memória.
+ *
+ * Access tokens (claim "ver") e refresh tokens carregam a versão do usuário na emissão. Quando uma conta é
+ * desativada ou rejeitada, a versão é incrementada com um único UPDATE e todo token com versão
+ * menor deixa de ser aceito, sem apagar linhas nem consultar o banco a cada requisição: a verificação é um
+ * acesso a um ConcurrentHashMap. O mapa guarda apenas usuários com versão maior que zero; ele é carregado
+ * inteiro no startup e, depois, periodicamente recebe apenas as linhas alteradas (User.updatedAt) desde a
+ * ressincronização anterior, para refletir incrementos feitos por outras instâncias. A consulta recua
+ * resync-lookback para cobrir diferença de relógio entre instâncias; reaplicar uma versão já conhecida não tem
+ * efeito, pois o mapa só guarda o maior valor.
+ *
+ * Usuários removidos não têm mais linha em users; a remoção grava um UserTombstone, que a ressincronização
+ * também lê, para que todas as instâncias rejeitem os access tokens do usuário até que expirem.
+ */
+@Component
+public class TokenEpochRegistry {
+    private static final Logger logger = LoggerConfig.getLogger(TokenEpochRegistry.class);
+
+    // Versão registrada para usuários removidos: nenhum token emitido para eles volta a ser aceito
+    private static final long DELETED = Long.MAX_VALUE;
+
+    @Autowired(required = false)
+    private UserRepository userRepository;
+
+    @Autowired(required = false)
+    private UserTombstoneRepository userTombstoneRepository;
+
+    // Prazo dos access tokens: remoções mais antigas não têm mais tokens a rejeitar
+    @Value("${jwt.expiration:86400000}")
+    private long jwtExpirationInMs;
+
+    @Value("${app.security.token-version.resync-lookback:60000}")
+    private long resyncLookbackMs;
+
+    // Início da última ressincronização; null até a carga completa
+    private volatile LocalDateTime lastResyncAt;
+
+    // userId -> versão atual; usuários ausentes estão na versão 0
+    private final Map<Long, Long> currentVersions = new ConcurrentHashMap<>();
+
+    /**
+     * Carrega as versões do banco assim que a aplicação está pronta e, depois, a cada resync-interval
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${app.security.token-version.resync-interval:30000}",
+            fixedDelayString = "${app.security.token-version.resync-interval:30000}")
+    public void resync() {
+        if (userRepository == null) {
+            return;
+        }
+        LocalDateTime startedAt = LocalDateTime.now();
+        LocalDateTime previous = lastResyncAt;
+        LocalDateTime since = previous == null ? null : previous.minusNanos(resyncLookbackMs * 1_000_000L);
+        int loaded = 0;
+        for (TokenVersionView view : since == null
+                ? userRepository.findBumpedTokenVersions()
+                : userRepository.findBumpedTokenVersionsUpdatedAfter(since)) {
+            currentVersions.merge(view.getId(), view.getTokenVersion(), Math::max);
+            loaded++;
+        }
+        int deleted = 0;
+        if (userTombstoneRepository != null) {
+            LocalDateTime expired = startedAt.minusNanos(jwtExpirationInMs * 1_000_000L);
+            LocalDateTime tombstonesSince = since == null || since.isBefore(expired) ? expired : since;
+            for (Long userId : userTombstoneRepository.findUserIdsDeletedAfter(tombstonesSince)) {
+                currentVersions.put(userId, DELETED);
+                deleted++;
+            }
+        }
+        lastResyncAt = startedAt;
+        logger.debug("Versões de token sincronizadas: {} usuários, {} removidos", loaded, deleted);
+    }
+
+    /**
+     * Apaga os registros de remoção mais antigos que jwt.expiration
+     */
+    @Scheduled(fixedDelayString = "${app.security.token-version.tombstone-cleanup-interval:3600000}")
+    public void purgeTombstones() {
+        if (userTombstoneRepository == null) {
+            return;
+        }
+        int purged = userTombstoneRepository.deleteOlderThan(
+                LocalDateTime.now().minusNanos(jwtExpirationInMs * 1_000_000L));
+        if (purged > 0) {
+            logger.debug("{} registros de usuários removidos expirados", purged);
+        }
+    }
+
+    /**
+     * Registra a nova versão do usuário após o commit da transação que a incrementou
+     */
+    public void versionBumped(Long userId, long newVersion) {
+        if (userId == null) {
+            return;
+        }
+        publish(userId, newVersion);
+        logger.info("Credenciais emitidas antes da versão {} revogadas para o usuário ID: {}", newVersion, userId);
+    }
+
+    /**
+     * Revoga definitivamente os tokens de um usuário removido nesta instância (após o commit); as demais
+     * instâncias o veem pelo UserTombstone gravado na mesma transação
+     */
+    public void userDeleted(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        publish(userId, DELETED);
+        logger.info("Tokens revogados para o usuário removido ID: {}", userId);
+    }
+
+    /**
+     * Verifica se um token emitido com a versão tokenVersion foi revogado
+     */
+    public boolean isRevoked(Long userId, long tokenVersion) {
+        if (userId == null) {
+            return false;
+        }
+        Long current = currentVersions.get(userId);
+        return current != null && tokenVersion < current;
+    }
+
+    private void publish(Long userId, long version) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    currentVersions.merge(userId, version, Math::max);
+                }
+            });
+        } else {
+            currentVersions.merge(userId, version, Math::max);
+        }
+    }
+}
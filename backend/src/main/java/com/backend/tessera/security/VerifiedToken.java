@@ -0,0 +1,96 @@
+package com.backend.tessera.security;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resultado imutável de um JWT cuja assinatura já foi verificada.
+ * Permite que o filtro consulte usuário, expiração e papéis sem voltar a fazer o parse do token.
+ */
+public final class VerifiedToken {
+    private final String username;
+    private final Long userId;
+    private final String status;
+    private final Instant issuedAt;
+    private final long tokenVersion;
+    private final Instant expiration;
+    private final List<String> roles;
+
+    public VerifiedToken(String username, Long userId, String status, long tokenVersion, Instant issuedAt,
+                         Instant expiration, List<String> roles) {
+        this.username = username;
+        this.userId = userId;
+        this.status = status;
+        this.tokenVersion = tokenVersion;
+        this.issuedAt = issuedAt;
+        this.expiration = expiration;
+        this.roles = roles != null ? List.copyOf(roles) : Collections.emptyList();
+    }
+
+    /**
+     * Converte o claim "roles" (papéis separados por vírgula, como gerado por JwtUtil) em lista
+     */
+    static List<String> parseRoles(Object rolesClaim) {
+        if (rolesClaim == null) {
+            return Collections.emptyList();
+        }
+        String roles = rolesClaim.toString();
+        if (roles.isBlank()) {
+            return Collections.emptyList();
+        }
+        return Arrays.stream(roles.split(","))
+                .map(String::trim)
+                .filter(role -> !role.isEmpty())
+                .toList();
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    /**
+     * ID do usuário (claim "uid"); nulo em tokens emitidos antes da inclusão do claim
+     */
+    public Long getUserId() {
+        return userId;
+    }
+
+    /**
+     * Status da conta no momento da emissão (claim "status")
+     */
+    public String getStatus() {
+        return status;
+    }
+
+    /**
+     * Versão das credenciais do usuário na emissão (claim "ver"); 0 em tokens emitidos antes da inclusão do claim
+     */
+    public long getTokenVersion() {
+        return tokenVersion;
+    }
+
+    /**
+     * Indica se o token carrega claims suficientes para autenticar sem consultar o banco
+     */
+    public boolean hasIdentityClaims() {
+        return username != null && userId != null && status != null;
+    }
+
+    public Instant getIssuedAt() {
+        return issuedAt;
+    }
+
+    public Instant getExpiration() {
+        return expiration;
+    }
+
+    public List<String> getRoles() {
+        return roles;
+    }
+
+    public boolean isExpired() {
+        return expiration == null || expiration.isBefore(Instant.now());
+    }
+}
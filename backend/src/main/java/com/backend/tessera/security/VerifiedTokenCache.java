@@ -0,0 +1,118 @@
+package com.backend.tessera.security;
+
+import com.backend.tessera.config.LoggerConfig;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Cache limitado de tokens cuja assinatura já foi verificada, indexado pelo SHA-256 do token.
+ *
+ * O cache memoriza apenas o trabalho criptográfico (HMAC + parse dos claims). Cada entrada vive no
+ * máximo até o claim exp do próprio token, e a revogação (TokenEpochRegistry) continua sendo verificada
+ * pelo filtro a cada requisição. O status do usuário só é relido do banco a cada requisição com
+ * jwt.stateless.enabled=false; no modo stateless vale o status do claim, e uma conta desativada ou rejeitada
+ * deixa de ser aceita pela versão de token incrementada (nas demais instâncias, após a ressincronização).
+ */
+@Component
+public class VerifiedTokenCache {
+    private static final Logger logger = LoggerConfig.getLogger(VerifiedTokenCache.class);
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 não disponível", e);
+        }
+    });
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${jwt.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${jwt.cache.max-size:10000}")
+    private long maxSize;
+
+    private Cache<String, VerifiedToken> cache;
+
+    @PostConstruct
+    public void init() {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwtVerifiedTokens");
+        logger.debug("Cache de tokens verificados inicializado (habilitado: {}, tamanho máximo: {})", enabled, maxSize);
+    }
+
+    /**
+     * Devolve os claims verificados do token, consultando o cache antes de verificar a assinatura
+     */
+    public VerifiedToken verify(String token) {
+        if (!enabled) {
+            return jwtUtil.verify(token);
+        }
+
+        String key = digest(token);
+        VerifiedToken cached = cache.getIfPresent(key);
+        if (cached != null && !cached.isExpired()) {
+            return cached;
+        }
+
+        VerifiedToken verified = jwtUtil.verify(token);
+        if (verified.getExpiration() != null) {
+            cache.put(key, verified);
+        }
+        return verified;
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    private static String digest(String token) {
+        byte[] hash = SHA_256.get().digest(token.getBytes(StandardCharsets.US_ASCII));
+        return Base64.getEncoder().withoutPadding().encodeToString(hash);
+    }
+
+    /**
+     * Expira cada entrada exatamente no instante do claim exp do token
+     */
+    private static class TokenExpiry implements Expiry<String, VerifiedToken> {
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+            long remaining = Duration.between(Instant.now(), value.getExpiration()).toNanos();
+            return Math.max(0, remaining);
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
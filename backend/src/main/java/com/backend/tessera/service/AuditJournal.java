@@ -0,0 +1,451 @@
+package com.backend.tessera.service;
+
+import com.backend.tessera.config.LoggerConfig;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+/**
+ * Journal local, somente de acréscimo, em arquivos mapeados em memória.
+ *
+ * O journal é dividido em segmentos de tamanho fixo (audit-<primeira sequência>.seg). Cada registro tem o
+ * formato [tamanho:int][crc32:int][sequência:long][dados]; o tamanho é escrito por último, de modo que um
+ * registro interrompido no meio aparece como fim do segmento (tamanho zero) ou falha no CRC. Como a escrita vai
+ * para o page cache do sistema operacional, um registro acrescentado sobrevive à queda do processo; force()
+ * leva as páginas ao disco para sobreviver também à queda da máquina.
+ *
+ * O arquivo checkpoint guarda a última sequência já confirmada pelo consumidor; segmentos inteiramente
+ * confirmados são apagados por truncate(). Na abertura, o último segmento é verificado e o que vier depois do
+ * último registro válido é zerado.
+ *
+ * Só um journal pode estar aberto por diretório: open() trava o arquivo lock com um FileLock, que vale entre
+ * processos, e falha se outra instância (ou outro contexto na mesma JVM) já estiver usando o diretório. Dois
+ * escritores no mesmo diretório atribuiriam as mesmas sequências e sobrescreveriam os registros um do outro.
+ */
+public class AuditJournal implements AutoCloseable {
+    private static final Logger logger = LoggerConfig.getLogger(AuditJournal.class);
+
+    static final int HEADER_SIZE = 16;
+    private static final String SEGMENT_PREFIX = "audit-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final String LOCK_FILE = "lock";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final FileLock lock;
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+    private Segment active;
+    private long nextSeq;
+    private long checkpoint;
+
+    // Posições já conhecidas (início da última leitura e fim do último registro lido), para que leituras
+    // repetidas ou sequenciais não percorram o segmento desde o início
+    private Position startHint;
+    private Position endHint;
+
+    private AuditJournal(Path directory, int segmentSize, FileLock lock) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.lock = lock;
+    }
+
+    /**
+     * Abre (ou cria) o journal no diretório, recuperando os registros válidos de uma execução anterior
+     */
+    public static AuditJournal open(Path directory, int segmentSize) throws IOException {
+        if (segmentSize <= HEADER_SIZE) {
+            throw new IllegalArgumentException("Tamanho de segmento inválido: " + segmentSize);
+        }
+        Files.createDirectories(directory);
+        FileLock lock = lock(directory);
+        try {
+            AuditJournal journal = new AuditJournal(directory, segmentSize, lock);
+            journal.recover();
+            return journal;
+        } catch (IOException | RuntimeException e) {
+            lock.channel().close();
+            throw e;
+        }
+    }
+
+    private static FileLock lock(Path directory) throws IOException {
+        FileChannel channel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE);
+        FileLock lock;
+        try {
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        if (lock == null) {
+            channel.close();
+            throw new IOException("Journal de auditoria já está em uso por outro processo: " + directory);
+        }
+        return lock;
+    }
+
+    private void recover() throws IOException {
+        this.checkpoint = readCheckpoint();
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                long firstSeq = Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+                segments.put(firstSeq, Segment.map(file, firstSeq, segmentSize));
+            }
+        }
+
+        if (segments.isEmpty()) {
+            nextSeq = checkpoint + 1;
+            active = createSegment(nextSeq);
+            return;
+        }
+
+        // Só o último segmento pode ter um registro incompleto; os anteriores foram fechados ao virar de segmento
+        active = segments.lastEntry().getValue();
+        long seq = active.firstSeq;
+        int position = 0;
+        while (true) {
+            Record record = readAt(active, position, seq);
+            if (record == null) {
+                break;
+            }
+            position = record.end;
+            seq++;
+        }
+        active.writePosition = position;
+        if (!isZero(active.buffer, position, Math.min(segmentSize, position + HEADER_SIZE))) {
+            logger.warn("Registro incompleto descartado no fim do journal de auditoria {}", active.path);
+            zero(active.buffer, position, segmentSize);
+        }
+        nextSeq = seq;
+        logger.info("Journal de auditoria aberto: {} segmentos, próxima sequência {}, checkpoint {}",
+                segments.size(), nextSeq, checkpoint);
+    }
+
+    /**
+     * Acrescenta um registro
+     *
+     * @return a sequência atribuída ao registro
+     */
+    public synchronized long append(byte[] data) throws IOException {
+        int recordSize = HEADER_SIZE + data.length;
+        if (recordSize > segmentSize) {
+            throw new IllegalArgumentException("Registro maior que o segmento do journal: " + data.length + " bytes");
+        }
+        if (active.writePosition + recordSize > segmentSize) {
+            active.buffer.force();
+            active = createSegment(nextSeq);
+        }
+
+        long seq = nextSeq;
+        MappedByteBuffer buffer = active.buffer;
+        int position = active.writePosition;
+        buffer.putLong(position + 8, seq);
+        buffer.put(position + HEADER_SIZE, data);
+        buffer.putInt(position + 4, crc(seq, data, 0, data.length));
+        // O tamanho por último: até aqui o registro ainda é lido como fim do segmento
+        buffer.putInt(position, data.length);
+
+        active.writePosition = position + recordSize;
+        nextSeq = seq + 1;
+        return seq;
+    }
+
+    /**
+     * Lê até max registros posteriores a afterSeq, em ordem
+     */
+    public synchronized List<Record> read(long afterSeq, int max) {
+        List<Record> records = new ArrayList<>(Math.min(max, 256));
+        Position start = hint(afterSeq);
+        Map.Entry<Long, Segment> entry;
+        long seq;
+        int position;
+        if (start != null) {
+            entry = Map.entry(start.segment.firstSeq, start.segment);
+            seq = afterSeq + 1;
+            position = start.position;
+        } else {
+            entry = segments.floorEntry(afterSeq + 1);
+            if (entry == null) {
+                entry = segments.firstEntry();
+            }
+            seq = entry.getValue().firstSeq;
+            position = 0;
+        }
+        boolean startKnown = start != null;
+        Segment lastSegment = null;
+        int lastPosition = 0;
+        while (entry != null && records.size() < max) {
+            Segment segment = entry.getValue();
+            while (records.size() < max) {
+                Record record = readAt(segment, position, seq);
+                if (record == null) {
+                    break;
+                }
+                if (!startKnown && record.seq > afterSeq) {
+                    startHint = new Position(afterSeq, segment, position);
+                    startKnown = true;
+                }
+                if (record.seq > afterSeq) {
+                    records.add(record);
+                    endHint = new Position(record.seq, segment, record.end);
+                }
+                position = record.end;
+                seq++;
+            }
+            lastSegment = segment;
+            lastPosition = position;
+            if (segment != active && records.size() < max && position + HEADER_SIZE <= segmentSize
+                    && segment.buffer.getInt(position) != 0) {
+                logger.error("Registro corrompido no journal de auditoria {} (posição {}); restante do segmento ignorado",
+                        segment.path, position);
+            }
+            entry = segments.higherEntry(entry.getKey());
+            if (entry != null) {
+                seq = entry.getValue().firstSeq;
+                position = 0;
+            }
+        }
+        if (!startKnown && lastSegment != null) {
+            // Nada depois de afterSeq ainda: o próximo registro virá a partir daqui
+            startHint = new Position(afterSeq, lastSegment, lastPosition);
+        }
+        return records;
+    }
+
+    /**
+     * Registra que todos os registros até seq foram entregues e apaga os segmentos inteiramente confirmados
+     */
+    public synchronized void confirm(long seq) throws IOException {
+        if (seq <= checkpoint) {
+            return;
+        }
+        writeCheckpoint(seq);
+        checkpoint = seq;
+        truncate();
+    }
+
+    private void truncate() throws IOException {
+        while (segments.size() > 1) {
+            Map.Entry<Long, Segment> first = segments.firstEntry();
+            Long nextFirstSeq = segments.higherKey(first.getKey());
+            // Todos os registros do segmento têm sequência menor que a do primeiro registro do seguinte
+            if (nextFirstSeq == null || nextFirstSeq - 1 > checkpoint) {
+                return;
+            }
+            segments.remove(first.getKey());
+            first.getValue().close();
+            Files.deleteIfExists(first.getValue().path);
+        }
+    }
+
+    /**
+     * Leva ao disco as escritas do segmento atual
+     */
+    public synchronized void force() {
+        active.buffer.force();
+    }
+
+    public synchronized long getCheckpoint() {
+        return checkpoint;
+    }
+
+    /**
+     * Sequência do último registro acrescentado (ou checkpoint, se não houver nenhum)
+     */
+    public synchronized long getLastSeq() {
+        return nextSeq - 1;
+    }
+
+    synchronized int getSegmentCount() {
+        return segments.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            active.buffer.force();
+            for (Segment segment : segments.values()) {
+                segment.close();
+            }
+            segments.clear();
+        } finally {
+            // Fechar o canal libera o lock do diretório
+            lock.channel().close();
+        }
+    }
+
+    private Position hint(long afterSeq) {
+        for (Position hint : new Position[]{endHint, startHint}) {
+            if (hint != null && hint.afterSeq == afterSeq && segments.get(hint.segment.firstSeq) == hint.segment) {
+                return hint;
+            }
+        }
+        return null;
+    }
+
+    private Record readAt(Segment segment, int position, long expectedSeq) {
+        if (position + HEADER_SIZE > segmentSize) {
+            return null;
+        }
+        MappedByteBuffer buffer = segment.buffer;
+        int length = buffer.getInt(position);
+        if (length <= 0 || position + HEADER_SIZE + length > segmentSize) {
+            return null;
+        }
+        long seq = buffer.getLong(position + 8);
+        if (seq != expectedSeq) {
+            return null;
+        }
+        byte[] data = new byte[length];
+        buffer.get(position + HEADER_SIZE, data);
+        if (crc(seq, data, 0, length) != buffer.getInt(position + 4)) {
+            return null;
+        }
+        return new Record(seq, data, position + HEADER_SIZE + length);
+    }
+
+    private Segment createSegment(long firstSeq) throws IOException {
+        Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSeq, SEGMENT_SUFFIX));
+        Segment segment = Segment.map(path, firstSeq, segmentSize);
+        segments.put(firstSeq, segment);
+        return segment;
+    }
+
+    private long readCheckpoint() throws IOException {
+        Path path = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(path)) {
+            return 0L;
+        }
+        byte[] bytes = Files.readAllBytes(path);
+        if (bytes.length == 12) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            long seq = buffer.getLong();
+            if (crc(seq, bytes, 0, 0) == buffer.getInt()) {
+                return seq;
+            }
+        }
+        // Sem checkpoint válido os registros serão entregues de novo, mas nada se perde
+        logger.warn("Checkpoint do journal de auditoria inválido em {}; reprocessando desde o início", path);
+        return 0L;
+    }
+
+    private void writeCheckpoint(long seq) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(12);
+        buffer.putLong(seq).putInt(crc(seq, buffer.array(), 0, 0));
+        Path tmp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(buffer.flip());
+            channel.force(false);
+        }
+        Files.move(tmp, directory.resolve(CHECKPOINT_FILE), StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static int crc(long seq, byte[] data, int offset, int length) {
+        CRC32 crc = new CRC32();
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            crc.update((int) (seq >>> shift));
+        }
+        crc.update(data, offset, length);
+        return (int) crc.getValue();
+    }
+
+    private static boolean isZero(MappedByteBuffer buffer, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void zero(MappedByteBuffer buffer, int from, int to) {
+        for (int i = from; i < to; i++) {
+            buffer.put(i, (byte) 0);
+        }
+    }
+
+    /**
+     * Registro lido do journal
+     */
+    public static final class Record {
+        private final long seq;
+        private final byte[] data;
+        private final int end;
+
+        private Record(long seq, byte[] data, int end) {
+            this.seq = seq;
+            this.data = data;
+            this.end = end;
+        }
+
+        public long getSeq() {
+            return seq;
+        }
+
+        public byte[] getData() {
+            return data;
+        }
+    }
+
+    private static final class Position {
+        private final long afterSeq;
+        private final Segment segment;
+        private final int position;
+
+        private Position(long afterSeq, Segment segment, int position) {
+            this.afterSeq = afterSeq;
+            this.segment = segment;
+            this.position = position;
+        }
+    }
+
+    private static final class Segment {
+        private final Path path;
+        private final long firstSeq;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private int writePosition;
+
+        private Segment(Path path, long firstSeq, FileChannel channel, MappedByteBuffer buffer) {
+            this.path = path;
+            this.firstSeq = firstSeq;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        private static Segment map(Path path, long firstSeq, int size) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            // Mapear além do fim estende o arquivo com zeros, que marcam o fim dos registros
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            return new Segment(path, firstSeq, channel, buffer);
+        }
+
+        private void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,378 @@
+package com.backend.tessera.service;
+
+import com.backend.tessera.config.LoggerConfig;
+import com.backend.tessera.model.AuditLog;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Grava os registros de auditoria em lote, fora da transação da requisição.
+ *
+ * append primeiro acrescenta o evento ao AuditJournal (arquivo local mapeado em memória, alguns microssegundos)
+ * e retorna; o evento já sobrevive a uma queda do processo ou a uma indisponibilidade do banco. Uma thread de
+ * escrita lê o journal a partir do checkpoint e grava os eventos com INSERTs em lote via JDBC (AuditLog usa ids
+ * IDENTITY, o que impede o batching do Hibernate) quando junta app.audit.batch-size eventos ou quando o
+ * primeiro evento pendente espera app.audit.flush-interval. Depois de cada lote gravado o checkpoint avança e
+ * os segmentos já confirmados são apagados. Se o banco falhar de forma transitória (conexão, timeout,
+ * deadlock), a thread tenta de novo a cada app.audit.retry-interval e, quando ele volta, entrega o atraso
+ * acumulado. Qualquer outro erro é do próprio lote: ele é dividido ao meio até isolar o registro recusado, que
+ * vai para a quarentena (arquivo em app.audit.journal.dir/quarantine, log e métrica) para que o checkpoint
+ * avance e o restante do journal não fique parado atrás dele. A entrega é pelo menos uma vez: uma queda entre
+ * o INSERT e o checkpoint grava o último lote de novo.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class AuditLogWriter {
+    private static final Logger logger = LoggerConfig.getLogger(AuditLogWriter.class);
+
+    private static final String INSERT_SQL =
+            "INSERT INTO audit_logs (action, performed_by, timestamp, details, target_user_id) VALUES (?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.audit.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.audit.flush-interval:1000}")
+    private long flushIntervalMs;
+
+    @Value("${app.audit.retry-interval:5000}")
+    private long retryIntervalMs;
+
+    @Value("${app.audit.journal.dir:data/audit/journal}")
+    private String journalDir;
+
+    @Value("${app.audit.journal.segment-size:8388608}")
+    private int segmentSize;
+
+    // Intervalo (ms) para levar o journal ao disco; protege contra queda da máquina, não só do processo
+    @Value("${app.audit.journal.force-interval:1000}")
+    private long forceIntervalMs;
+
+    private AuditJournal journal;
+    private Path quarantineDir;
+    private TransactionTemplate transactionTemplate;
+    private Thread writer;
+    private volatile boolean running;
+    private volatile long shippedSeq;
+    private Counter writtenCounter;
+    private Counter failedCounter;
+    private Counter quarantinedCounter;
+
+    @PostConstruct
+    public void init() throws IOException {
+        this.journal = AuditJournal.open(Paths.get(journalDir), segmentSize);
+        this.quarantineDir = Paths.get(journalDir).resolve("quarantine");
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.shippedSeq = journal.getCheckpoint();
+        this.writtenCounter = Counter.builder("tessera.audit.events")
+                .tag("result", "written")
+                .description("Eventos de auditoria processados pelo writer")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("tessera.audit.events")
+                .tag("result", "failed")
+                .description("Eventos de auditoria processados pelo writer")
+                .register(meterRegistry);
+        this.quarantinedCounter = Counter.builder("tessera.audit.events")
+                .tag("result", "quarantined")
+                .description("Eventos de auditoria processados pelo writer")
+                .register(meterRegistry);
+        Gauge.builder("tessera.audit.journal.lag", this, w -> w.journal.getLastSeq() - w.shippedSeq)
+                .description("Eventos de auditoria no journal ainda não gravados no banco")
+                .register(meterRegistry);
+
+        if (journal.getLastSeq() > shippedSeq) {
+            logger.info("{} eventos de auditoria pendentes no journal serão gravados no banco",
+                    journal.getLastSeq() - shippedSeq);
+        }
+
+        this.running = true;
+        this.writer = new Thread(this::run, "audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Registra o evento no journal e retorna; a gravação no banco é feita pela thread de escrita
+     */
+    public void append(AuditLog event) {
+        try {
+            long seq = journal.append(encode(event));
+            if (seq - shippedSeq >= batchSize) {
+                LockSupport.unpark(writer);
+            }
+        } catch (IOException | RuntimeException e) {
+            // Sem journal (ex.: disco cheio), grava direto no banco para não perder o evento
+            logger.error("Falha ao gravar evento de auditoria no journal; gravando direto no banco: {}", e.getMessage());
+            try {
+                insert(List.of(event));
+                writtenCounter.increment();
+            } catch (RuntimeException dbError) {
+                failedCounter.increment();
+                logger.error("Evento de auditoria perdido: {} por {} (usuário {}): {}", event.getAction(),
+                        event.getPerformedBy(), event.getTargetUserId(), dbError.getMessage());
+            }
+        }
+    }
+
+    private void run() {
+        long firstPendingAt = 0L;
+        long lastForceAt = System.nanoTime();
+        while (running) {
+            if (System.nanoTime() - lastForceAt >= TimeUnit.MILLISECONDS.toNanos(forceIntervalMs)) {
+                journal.force();
+                lastForceAt = System.nanoTime();
+            }
+
+            List<AuditJournal.Record> batch = journal.read(shippedSeq, batchSize);
+            if (batch.isEmpty()) {
+                firstPendingAt = 0L;
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(flushIntervalMs));
+                continue;
+            }
+            if (batch.size() < batchSize) {
+                // Lote incompleto: espera encher ou o primeiro evento completar flush-interval
+                long now = System.nanoTime();
+                if (firstPendingAt == 0L) {
+                    firstPendingAt = now;
+                }
+                long remaining = firstPendingAt + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs) - now;
+                if (remaining > 0 && running) {
+                    LockSupport.parkNanos(this, remaining);
+                    continue;
+                }
+            }
+
+            if (ship(batch)) {
+                firstPendingAt = 0L;
+            } else {
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(retryIntervalMs));
+            }
+        }
+    }
+
+    /**
+     * Grava o lote no banco e avança o checkpoint até o último registro resolvido
+     *
+     * @return false se o banco ficou indisponível no meio do lote (o restante continua no journal)
+     */
+    private boolean ship(List<AuditJournal.Record> batch) {
+        int resolved = shipPrefix(batch);
+        if (resolved == 0) {
+            return false;
+        }
+        long lastSeq = batch.get(resolved - 1).getSeq();
+        shippedSeq = lastSeq;
+        try {
+            journal.confirm(lastSeq);
+        } catch (IOException e) {
+            // O lote já está no banco; sem checkpoint ele seria gravado de novo só após um reinício
+            logger.error("Falha ao gravar o checkpoint do journal de auditoria: {}", e.getMessage());
+        }
+        return resolved == batch.size();
+    }
+
+    /**
+     * Grava os registros em ordem. Um erro que não é transitório divide a lista ao meio até isolar o registro
+     * recusado, que vai para a quarentena; um erro transitório interrompe a gravação
+     *
+     * @return quantos registros do início da lista foram resolvidos (gravados ou em quarentena)
+     */
+    private int shipPrefix(List<AuditJournal.Record> records) {
+        List<AuditLog> events = new ArrayList<>(records.size());
+        for (int i = 0; i < records.size(); i++) {
+            try {
+                events.add(decode(records.get(i).getData()));
+            } catch (IllegalStateException e) {
+                int resolved = i > 0 ? shipPrefix(records.subList(0, i)) : 0;
+                if (resolved < i) {
+                    return resolved;
+                }
+                quarantine(records.get(i), null, e);
+                return i + 1 + shipPrefix(records.subList(i + 1, records.size()));
+            }
+        }
+        if (events.isEmpty()) {
+            return 0;
+        }
+        try {
+            // Numa transação, para que um lote recusado no meio não deixe parte dele gravada
+            transactionTemplate.executeWithoutResult(status -> insert(events));
+            writtenCounter.increment(events.size());
+            return records.size();
+        } catch (RuntimeException e) {
+            if (isTransient(e)) {
+                logger.warn("Banco indisponível para {} eventos de auditoria; nova tentativa em {} ms: {}",
+                        events.size(), retryIntervalMs, e.getMessage());
+                return 0;
+            }
+            if (records.size() == 1) {
+                quarantine(records.get(0), events.get(0), e);
+                return 1;
+            }
+            int half = records.size() / 2;
+            int resolved = shipPrefix(records.subList(0, half));
+            if (resolved < half) {
+                return resolved;
+            }
+            return half + shipPrefix(records.subList(half, records.size()));
+        }
+    }
+
+    /**
+     * Erros em que vale tentar de novo o mesmo lote: banco fora do ar, conexão perdida, timeout, deadlock
+     */
+    static boolean isTransient(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TransientDataAccessException
+                    || cause instanceof CannotGetJdbcConnectionException
+                    || cause instanceof RecoverableDataAccessException
+                    || cause instanceof CannotCreateTransactionException
+                    || cause instanceof SQLTransientException
+                    || cause instanceof SQLRecoverableException
+                    || cause instanceof SQLNonTransientConnectionException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Tira do caminho um registro que o banco nunca vai aceitar: guarda os bytes do journal em quarentena para
+     * análise e reprocessamento manual
+     */
+    private void quarantine(AuditJournal.Record record, AuditLog event, Exception error) {
+        quarantinedCounter.increment();
+        Path file = quarantineDir.resolve(String.format("%020d.rec", record.getSeq()));
+        try {
+            Files.createDirectories(quarantineDir);
+            Files.write(file, record.getData());
+        } catch (IOException e) {
+            logger.error("Falha ao gravar o evento de auditoria {} em quarentena: {}", record.getSeq(), e.getMessage());
+        }
+        if (event != null) {
+            logger.error("Evento de auditoria {} em quarentena ({}): {} por {} (usuário {}): {}", record.getSeq(), file,
+                    event.getAction(), event.getPerformedBy(), event.getTargetUserId(), error.getMessage());
+        } else {
+            logger.error("Evento de auditoria {} ilegível em quarentena ({}): {}", record.getSeq(), file,
+                    error.getMessage());
+        }
+    }
+
+    private void insert(List<AuditLog> batch) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, event) -> {
+            ps.setString(1, event.getAction());
+            ps.setString(2, event.getPerformedBy());
+            ps.setTimestamp(3, Timestamp.valueOf(event.getTimestamp()));
+            ps.setString(4, event.getDetails());
+            if (event.getTargetUserId() != null) {
+                ps.setLong(5, event.getTargetUserId());
+            } else {
+                ps.setNull(5, java.sql.Types.BIGINT);
+            }
+        });
+    }
+
+    /**
+     * Para a thread de escrita e grava no banco o que restou no journal; o que não puder ser gravado
+     * permanece no journal para a próxima inicialização
+     */
+    @PreDestroy
+    public void shutdown() throws IOException {
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        List<AuditJournal.Record> batch;
+        while (!(batch = journal.read(shippedSeq, batchSize)).isEmpty() && ship(batch)) {
+            // Esvazia o journal enquanto o banco aceitar
+        }
+        journal.close();
+    }
+
+    AuditJournal getJournal() {
+        return journal;
+    }
+
+    static byte[] encode(AuditLog event) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeUTF(event.getAction());
+            out.writeUTF(event.getPerformedBy());
+            out.writeUTF(event.getTimestamp().toString());
+            writeNullable(out, event.getDetails());
+            out.writeBoolean(event.getTargetUserId() != null);
+            if (event.getTargetUserId() != null) {
+                out.writeLong(event.getTargetUserId());
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Falha ao serializar evento de auditoria", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static AuditLog decode(byte[] data) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            AuditLog event = new AuditLog();
+            event.setAction(in.readUTF());
+            event.setPerformedBy(in.readUTF());
+            event.setTimestamp(LocalDateTime.parse(in.readUTF()));
+            event.setDetails(in.readBoolean() ? in.readUTF() : null);
+            event.setTargetUserId(in.readBoolean() ? in.readLong() : null);
+            return event;
+        } catch (IOException e) {
+            throw new IllegalStateException("Evento de auditoria inválido no journal", e);
+        }
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+}
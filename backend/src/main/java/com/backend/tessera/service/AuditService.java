@@ -2,32 +2,45 @@ package com.backend.tessera.service;
 
 import com.backend.tessera.config.LoggerConfig;
 import com.backend.tessera.model.AuditLog;
-import com.backend.tessera.repository.AuditLogRepository;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @Service
 public class AuditService {
     private static final Logger logger = LoggerConfig.getLogger(AuditService.class);
     
     @Autowired
-    private AuditLogRepository auditLogRepository;
+    private AuditLogWriter auditLogWriter;
     
-    @Transactional
     public void logUserApproval(String adminUsername, Long userId, boolean approved) {
-        AuditLog log = AuditLog.createApprovalLog(adminUsername, userId, approved);
-        auditLogRepository.save(log);
+        publish(AuditLog.createApprovalLog(adminUsername, userId, approved));
         logger.info("Audit: Usuário {} {} pelo administrador {}", 
                    userId, (approved ? "aprovado" : "rejeitado"), adminUsername);
     }
     
-    @Transactional
     public void logUserStatusChange(String adminUsername, Long userId, boolean enabled) {
-        AuditLog log = AuditLog.createStatusChangeLog(adminUsername, userId, enabled);
-        auditLogRepository.save(log);
+        publish(AuditLog.createStatusChangeLog(adminUsername, userId, enabled));
         logger.info("Audit: Status do usuário {} alterado para {} pelo administrador {}", 
                    userId, (enabled ? "ativo" : "inativo"), adminUsername);
     }
-}
\ No newline at end of file
+
+    /**
+     * Entrega o evento ao AuditLogWriter (gravação assíncrona em lote); dentro de uma transação, só após o
+     * commit, para não registrar ações que foram desfeitas
+     */
+    private void publish(AuditLog event) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    auditLogWriter.append(event);
+                }
+            });
+        } else {
+            auditLogWriter.append(event);
+        }
+    }
+}
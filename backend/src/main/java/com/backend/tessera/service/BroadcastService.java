@@ -0,0 +1,354 @@
+package com.backend.tessera.service;
+
+import com.backend.tessera.config.LoggerConfig;
+import com.backend.tessera.dto.BroadcastRequest;
+import com.backend.tessera.exception.ResourceNotFoundException;
+import com.backend.tessera.model.BroadcastJob;
+import com.backend.tessera.model.Role;
+import com.backend.tessera.repository.BroadcastJobRepository;
+import com.backend.tessera.repository.UserRepository;
+import com.backend.tessera.repository.UserRepository.RecipientView;
+import com.backend.tessera.security.StripedTokenBucketLimiter;
+import com.backend.tessera.service.EmailTemplateEngine.RenderedEmail;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Envio de um comunicado por email a um grupo de usuários (broadcast).
+ *
+ * O job percorre os destinatários em lotes ordenados por id (paginação por chave a partir do checkpoint), então
+ * a memória usada não depende do tamanho do grupo. O corpo é renderizado uma vez por execução e o mesmo array
+ * de bytes é usado em todas as mensagens. O envio passa pelo pool SMTP em app.broadcast.threads threads, com
+ * vazão limitada por app.broadcast.rate-per-second para não disputar o relay com os emails transacionais, e
+ * também pelo limite por domínio de destino da outbox (app.email.domain-rate.*), compartilhado com eles.
+ * Ao fim de cada lote o checkpoint (lastUserId e contadores) é gravado; após um reinício o job continua do
+ * último lote concluído, reenviando no máximo um lote. Destinatários cujo envio falha vão para a outbox, que
+ * cuida das retentativas.
+ *
+ * Cada execução assume o job com um claimToken próprio; checkpoints, heartbeats e a finalização exigem esse
+ * token, então uma execução que perdeu o job (heartbeat vencido e retomada por outra instância) para no
+ * próximo heartbeat em vez de gravar por cima da nova.
+ */
+@Service
+public class BroadcastService {
+    private static final Logger logger = LoggerConfig.getLogger(BroadcastService.class);
+
+    static final String TEMPLATE_BROADCAST = "broadcast";
+    private static final String RATE_KEY = "broadcast";
+
+    @Autowired
+    private BroadcastJobRepository jobRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EmailTemplateEngine templateEngine;
+
+    @Autowired
+    private EmailOutboxDispatcher outboxDispatcher;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.email.locale:pt-BR}")
+    private Locale locale;
+
+    @Value("${app.broadcast.page-size:500}")
+    private int pageSize;
+
+    @Value("${app.broadcast.threads:2}")
+    private int deliveryThreads;
+
+    @Value("${app.broadcast.rate-per-second:20}")
+    private int ratePerSecond;
+
+    // Job RUNNING sem heartbeat há mais que isso é considerado abandonado e pode ser retomado
+    @Value("${app.broadcast.stale-after:300000}")
+    private long staleAfterMs;
+
+    private TransactionTemplate transactionTemplate;
+    private ExecutorService runner;
+    private ExecutorService deliveryExecutor;
+    private StripedTokenBucketLimiter rateLimiter;
+    private final Set<Long> activeJobs = ConcurrentHashMap.newKeySet();
+    private Counter sentCounter;
+    private Counter failedCounter;
+
+    @PostConstruct
+    public void init() {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.runner = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "broadcast-runner");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger threadCount = new AtomicInteger();
+        this.deliveryExecutor = Executors.newFixedThreadPool(deliveryThreads, runnable -> {
+            Thread thread = new Thread(runnable, "broadcast-delivery-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.rateLimiter = new StripedTokenBucketLimiter(ratePerSecond, ratePerSecond, 1000L, 1);
+
+        this.sentCounter = Counter.builder("tessera.email.broadcast.processed")
+                .tag("result", "sent")
+                .description("Emails de broadcast processados")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("tessera.email.broadcast.processed")
+                .tag("result", "failed")
+                .description("Emails de broadcast processados")
+                .register(meterRegistry);
+        Gauge.builder("tessera.email.broadcast.active", activeJobs, Set::size)
+                .description("Jobs de broadcast em execução nesta instância")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        runner.shutdownNow();
+        deliveryExecutor.shutdown();
+    }
+
+    /**
+     * Cria o job e o inicia após o commit
+     */
+    @Transactional
+    public BroadcastJob create(BroadcastRequest request, String createdBy) {
+        Role role = request.getRole() != null && !request.getRole().isBlank() ? Role.valueOf(request.getRole()) : null;
+        String institution = request.getInstitution() != null && !request.getInstitution().isBlank()
+                ? request.getInstitution() : null;
+
+        BroadcastJob job = BroadcastJob.create(request.getSubject(), request.getMessage(), role, institution, createdBy);
+        job.setTotalRecipients(userRepository.countBroadcastRecipients(role, institution));
+        jobRepository.save(job);
+        logger.info("Broadcast {} criado por {} para {} destinatários", job.getId(), createdBy, job.getTotalRecipients());
+
+        Long jobId = job.getId();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submit(jobId);
+                }
+            });
+        } else {
+            submit(jobId);
+        }
+        return job;
+    }
+
+    @Transactional(readOnly = true)
+    public BroadcastJob get(Long id) {
+        return jobRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Broadcast não encontrado com ID: " + id));
+    }
+
+    @Transactional(readOnly = true)
+    public Page<BroadcastJob> list(int page, int size) {
+        return jobRepository.findAll(PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "id")));
+    }
+
+    /**
+     * Cancela um job pendente ou em execução; o lote em andamento termina e o job para no próximo checkpoint
+     */
+    @Transactional
+    public BroadcastJob cancel(Long id) {
+        BroadcastJob job = get(id);
+        int updated = jobRepository.finish(id, BroadcastJob.Status.CANCELLED,
+                List.of(BroadcastJob.Status.PENDING, BroadcastJob.Status.RUNNING), LocalDateTime.now());
+        if (updated == 0) {
+            throw new IllegalArgumentException("Broadcast já finalizado: " + job.getStatus());
+        }
+        logger.info("Broadcast {} cancelado", id);
+        return jobRepository.findById(id).orElse(job);
+    }
+
+    /**
+     * Retoma jobs pendentes ou abandonados (a instância que os executava parou de gravar checkpoints)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${app.broadcast.stale-after:300000}",
+            fixedDelayString = "${app.broadcast.stale-after:300000}")
+    public void resumePending() {
+        LocalDateTime staleBefore = LocalDateTime.now().minus(Duration.ofMillis(staleAfterMs));
+        for (Long jobId : jobRepository.findResumableIds(staleBefore)) {
+            logger.info("Retomando broadcast {}", jobId);
+            submit(jobId);
+        }
+    }
+
+    private void submit(Long jobId) {
+        if (!activeJobs.add(jobId)) {
+            return;
+        }
+        runner.execute(() -> {
+            try {
+                run(jobId);
+            } finally {
+                activeJobs.remove(jobId);
+            }
+        });
+    }
+
+    /**
+     * Executa o job a partir do último checkpoint; não faz nada se outra instância estiver com ele
+     */
+    void run(Long jobId) {
+        LocalDateTime now = LocalDateTime.now();
+        String claimToken = UUID.randomUUID().toString();
+        Integer claimed = transactionTemplate.execute(status ->
+                jobRepository.claim(jobId, claimToken, now, now.minus(Duration.ofMillis(staleAfterMs))));
+        if (claimed == null || claimed == 0) {
+            return;
+        }
+
+        try {
+            BroadcastJob job = transactionTemplate.execute(status -> jobRepository.findById(jobId).orElseThrow());
+            RenderedEmail email = templateEngine.render(TEMPLATE_BROADCAST, locale,
+                    Map.of("subject", job.getSubject(), "message", job.getMessage()));
+            RenderedEmail rendered = new RenderedEmail(job.getSubject(), email.getBody());
+
+            long lastUserId = job.getLastUserId();
+            long processed = job.getSentCount() + job.getFailedCount();
+            long startNanos = System.nanoTime();
+            long processedThisRun = 0;
+
+            while (true) {
+                List<RecipientView> recipients = userRepository.findBroadcastRecipients(
+                        lastUserId, job.getRole(), job.getInstitution(), PageRequest.of(0, pageSize));
+                if (recipients.isEmpty()) {
+                    break;
+                }
+
+                AtomicLong sent = new AtomicLong();
+                AtomicLong failed = new AtomicLong();
+                boolean owned = deliverAll(jobId, claimToken, recipients, rendered, sent, failed);
+
+                long checkpointId = recipients.get(recipients.size() - 1).getId();
+                Integer updated = owned ? transactionTemplate.execute(status -> jobRepository.checkpoint(
+                        jobId, claimToken, checkpointId, sent.get(), failed.get(), LocalDateTime.now())) : null;
+                if (updated == null || updated == 0) {
+                    logger.info("Broadcast {} interrompido (cancelado ou assumido por outra instância)", jobId);
+                    return;
+                }
+                lastUserId = checkpointId;
+                processed += recipients.size();
+                processedThisRun += recipients.size();
+                double elapsedSeconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+                logger.info("Broadcast {}: {}/{} processados ({} emails/s)", jobId, processed,
+                        job.getTotalRecipients(), String.format(Locale.ROOT, "%.1f", processedThisRun / elapsedSeconds));
+            }
+
+            transactionTemplate.executeWithoutResult(status -> jobRepository.finishClaimed(jobId, claimToken,
+                    BroadcastJob.Status.COMPLETED, LocalDateTime.now()));
+            logger.info("Broadcast {} concluído: {} destinatários processados", jobId, processed);
+        } catch (Exception e) {
+            logger.error("Erro no broadcast {}: {}", jobId, e.getMessage(), e);
+            transactionTemplate.executeWithoutResult(status -> jobRepository.finishClaimed(jobId, claimToken,
+                    BroadcastJob.Status.FAILED, LocalDateTime.now()));
+        }
+    }
+
+    /**
+     * Envia o lote, renovando o heartbeat enquanto espera pelos limites de taxa
+     *
+     * @return false se o job foi cancelado ou assumido por outra execução no meio do lote
+     */
+    private boolean deliverAll(Long jobId, String claimToken, List<RecipientView> recipients, RenderedEmail email,
+                               AtomicLong sent, AtomicLong failed) {
+        // Bem abaixo de stale-after, para que nenhuma outra instância considere o job abandonado
+        long heartbeatIntervalNanos = Duration.ofMillis(staleAfterMs).toNanos() / 3;
+        long lastHeartbeat = System.nanoTime();
+        CompletableFuture<?>[] deliveries = new CompletableFuture<?>[recipients.size()];
+        int submitted = 0;
+        boolean owned = true;
+        for (RecipientView recipient : recipients) {
+            acquirePermit(recipient.getEmail());
+            if (System.nanoTime() - lastHeartbeat >= heartbeatIntervalNanos) {
+                Integer renewed = transactionTemplate.execute(status ->
+                        jobRepository.heartbeat(jobId, claimToken, LocalDateTime.now()));
+                if (renewed == null || renewed == 0) {
+                    owned = false;
+                    break;
+                }
+                lastHeartbeat = System.nanoTime();
+            }
+            if (deliveryThreads <= 1) {
+                deliver(recipient.getEmail(), email, sent, failed);
+            } else {
+                deliveries[submitted++] = CompletableFuture.runAsync(
+                        () -> deliver(recipient.getEmail(), email, sent, failed), deliveryExecutor);
+            }
+        }
+        CompletableFuture.allOf(Arrays.copyOf(deliveries, submitted)).join();
+        return owned;
+    }
+
+    private void deliver(String recipient, RenderedEmail email, AtomicLong sent, AtomicLong failed) {
+        try {
+            outboxDispatcher.send(recipient, email.getSubject(), email.getBody());
+            sent.incrementAndGet();
+            sentCounter.increment();
+        } catch (Exception e) {
+            // A outbox reenvia com backoff; o job segue para os próximos destinatários
+            logger.warn("Falha no envio de broadcast para {}; encaminhado à outbox: {}", recipient, e.getMessage());
+            emailService.enqueue(recipient, email);
+            failed.incrementAndGet();
+            failedCounter.increment();
+        }
+    }
+
+    /**
+     * Espera pela vazão do broadcast e pelo limite do domínio do destinatário
+     */
+    private void acquirePermit(String recipient) {
+        long waitNanos;
+        while ((waitNanos = rateLimiter.tryAcquire(RATE_KEY)) > 0) {
+            LockSupport.parkNanos(this, waitNanos);
+        }
+        while ((waitNanos = outboxDispatcher.tryAcquireDomain(recipient)) > 0) {
+            LockSupport.parkNanos(this, waitNanos);
+        }
+    }
+}
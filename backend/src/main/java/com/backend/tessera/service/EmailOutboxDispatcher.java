@@ -0,0 +1,408 @@
+package com.backend.tessera.service;
+
+import com.backend.tessera.config.LoggerConfig;
+import com.backend.tessera.model.EmailOutboxMessage;
+import com.backend.tessera.repository.EmailOutboxRepository;
+import com.backend.tessera.security.StripedTokenBucketLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.activation.DataHandler;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import jakarta.mail.util.ByteArrayDataSource;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Envia os emails gravados na outbox (tabela email_outbox).
+ *
+ * Cada ciclo reserva um lote de mensagens vencidas com SELECT ... FOR UPDATE SKIP LOCKED e, na mesma
+ * transação curta, empurra nextAttemptAt para o fim do prazo da reserva. O envio acontece fora da transação;
+ * se a instância cair no meio, as mensagens voltam a vencer quando a reserva expira. Assim várias instâncias
+ * podem processar a fila ao mesmo tempo sem enviar a mesma mensagem duas vezes. Falhas são reagendadas com
+ * backoff exponencial e jitter até app.email.outbox.max-attempts.
+ *
+ * O momento de cada retentativa também é registrado em uma RetryTimingWheel, que dispara um ciclo exatamente
+ * quando a mensagem vence; a varredura periódica fica só como rede de segurança (reservas expiradas, mensagens
+ * de outras instâncias e retentativas que não couberam na roda).
+ *
+ * Cada domínio de destino tem um token bucket (app.email.domain-rate.*) para respeitar os limites do relay:
+ * uma mensagem acima da taxa do seu domínio é adiada, sem contar como tentativa. As mensagens adiadas de um
+ * mesmo domínio ficam enfileiradas uma atrás da outra, a um intervalo de reposição de distância, em vez de
+ * acordarem todas no próximo token e voltarem a ser adiadas (n mensagens custariam O(n²) reservas).
+ *
+ * O limite é por instância: com N instâncias a taxa efetiva para um domínio é N vezes a configurada.
+ */
+@Service
+public class EmailOutboxDispatcher {
+    private static final Logger logger = LoggerConfig.getLogger(EmailOutboxDispatcher.class);
+
+    private static final String HTML_CONTENT_TYPE = "text/html; charset=UTF-8";
+
+    @Autowired
+    private EmailOutboxRepository outboxRepository;
+
+    @Autowired
+    private SmtpTransportPool transportPool;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${spring.mail.username}")
+    private String fromEmail;
+
+    @Value("${app.email.outbox.batch-size:50}")
+    private int batchSize;
+
+    // Prazo da reserva de um lote; deve ser maior que o tempo de envio do lote inteiro
+    @Value("${app.email.outbox.lease:120000}")
+    private long leaseMs;
+
+    @Value("${app.email.outbox.max-attempts:15}")
+    private int maxAttempts;
+
+    @Value("${app.email.outbox.backoff-initial:2000}")
+    private long backoffInitialMs;
+
+    @Value("${app.email.outbox.backoff-max:3600000}")
+    private long backoffMaxMs;
+
+    // Fração do backoff sorteada para baixo, para que falhas simultâneas não voltem todas no mesmo instante
+    @Value("${app.email.outbox.backoff-jitter:0.5}")
+    private double backoffJitter;
+
+    @Value("${app.email.domain-rate.capacity:30}")
+    private int domainRateCapacity;
+
+    @Value("${app.email.domain-rate.refill-tokens:60}")
+    private int domainRateRefillTokens;
+
+    @Value("${app.email.domain-rate.refill-period:60000}")
+    private long domainRateRefillPeriodMs;
+
+    @Value("${app.email.retry.tick:100}")
+    private long retryTickMs;
+
+    @Value("${app.email.retry.wheel-size:512}")
+    private int retryWheelSize;
+
+    @Value("${app.email.retry.capacity:10000}")
+    private int retryCapacity;
+
+    // Uma thread de entrega por conexão do pool SMTP
+    @Value("${app.mail.pool.size:4}")
+    private int deliveryThreads;
+
+    private TransactionTemplate transactionTemplate;
+    private ExecutorService deliveryExecutor;
+    private ThreadPoolExecutor triggerExecutor;
+    private RetryTimingWheel<Long> retryWheel;
+    private StripedTokenBucketLimiter domainLimiter;
+    // Domínio -> instante (System.nanoTime) do último envio adiado, para enfileirar os seguintes depois dele
+    private final Map<String, Long> deferralSlots = new ConcurrentHashMap<>();
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicBoolean rerun = new AtomicBoolean();
+    private final AtomicLong queueDepth = new AtomicLong();
+    private final AtomicLong oldestAgeSeconds = new AtomicLong();
+    private Counter sentCounter;
+    private Counter retriedCounter;
+    private Counter failedCounter;
+    private Counter throttledCounter;
+    private Counter retryOverflowCounter;
+
+    @PostConstruct
+    public void init() {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.deliveryExecutor = Executors.newFixedThreadPool(deliveryThreads, runnable -> {
+            Thread thread = new Thread(runnable, "email-delivery-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Um ciclo na fila já verá tudo o que foi confirmado antes dele começar: os pedidos seguintes são
+        // descartados em vez de rejeitados, e nunca falham a requisição que gravou o email
+        this.triggerExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "email-outbox-trigger");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.DiscardPolicy());
+        // Os ciclos disparados pela roda rodam na thread dela; as entregas seguem nas threads de entrega
+        this.retryWheel = new RetryTimingWheel<>("email-retry-wheel", retryTickMs, retryWheelSize, retryCapacity,
+                dueIds -> {
+                    logger.debug("{} retentativas de email vencidas", dueIds.size());
+                    dispatch();
+                });
+        retryWheel.start();
+        this.domainLimiter = new StripedTokenBucketLimiter(domainRateCapacity, domainRateRefillTokens,
+                domainRateRefillPeriodMs, 16);
+
+        this.sentCounter = Counter.builder("tessera.email.outbox.processed")
+                .tag("result", "sent")
+                .description("Emails processados pela outbox")
+                .register(meterRegistry);
+        this.retriedCounter = Counter.builder("tessera.email.outbox.processed")
+                .tag("result", "retry")
+                .description("Emails processados pela outbox")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("tessera.email.outbox.processed")
+                .tag("result", "failed")
+                .description("Emails processados pela outbox")
+                .register(meterRegistry);
+        this.throttledCounter = Counter.builder("tessera.email.outbox.processed")
+                .tag("result", "throttled")
+                .description("Emails processados pela outbox")
+                .register(meterRegistry);
+        Gauge.builder("tessera.email.outbox.depth", queueDepth, AtomicLong::get)
+                .description("Emails pendentes na outbox")
+                .register(meterRegistry);
+        Gauge.builder("tessera.email.outbox.oldest.age", oldestAgeSeconds, AtomicLong::get)
+                .baseUnit("seconds")
+                .description("Idade do email pendente mais antigo da outbox")
+                .register(meterRegistry);
+        this.retryOverflowCounter = Counter.builder("tessera.email.retry.overflow")
+                .description("Retentativas que não couberam na roda e ficaram para a varredura periódica")
+                .register(meterRegistry);
+        Gauge.builder("tessera.email.retry.scheduled", retryWheel, RetryTimingWheel::size)
+                .description("Retentativas de email agendadas na roda de tempo")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Aciona um ciclo logo após o commit de um novo email, sem esperar a próxima varredura. Não lança exceção:
+     * se já há um ciclo na fila o pedido é descartado, e depois do shutdown a varredura periódica envia o email.
+     */
+    public void dispatchAsync() {
+        triggerExecutor.execute(this::dispatch);
+    }
+
+    /**
+     * Varredura periódica: envia as mensagens vencidas (novas, reagendadas ou com reserva expirada)
+     */
+    @Scheduled(initialDelayString = "${app.email.outbox.poll-interval:10000}",
+            fixedDelayString = "${app.email.outbox.poll-interval:10000}")
+    public void dispatch() {
+        // Um ciclo por vez nesta instância; as demais instâncias são coordenadas pelos locks das linhas.
+        // Um pedido que chega durante um ciclo não se perde: marca rerun e o ciclo em andamento roda de novo.
+        rerun.set(true);
+        while (rerun.get() && running.compareAndSet(false, true)) {
+            try {
+                rerun.set(false);
+                List<EmailOutboxMessage> batch;
+                do {
+                    batch = claimBatch();
+                    deliverAll(batch);
+                } while (batch.size() == batchSize);
+                refreshGauges();
+            } catch (Exception e) {
+                logger.error("Erro ao processar a outbox de emails: {}", e.getMessage(), e);
+            } finally {
+                running.set(false);
+            }
+        }
+    }
+
+    private List<EmailOutboxMessage> claimBatch() {
+        List<EmailOutboxMessage> claimed = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<EmailOutboxMessage> due = outboxRepository.findDueForUpdate(now, PageRequest.of(0, batchSize));
+            LocalDateTime leaseUntil = now.plus(Duration.ofMillis(leaseMs));
+            for (EmailOutboxMessage message : due) {
+                message.setAttempts(message.getAttempts() + 1);
+                message.setNextAttemptAt(leaseUntil);
+            }
+            return due;
+        });
+        return claimed != null ? claimed : List.of();
+    }
+
+    /**
+     * Entrega o lote em paralelo; cada thread reutiliza uma conexão SMTP do pool para várias mensagens
+     */
+    private void deliverAll(List<EmailOutboxMessage> batch) {
+        if (batch.size() <= 1 || deliveryThreads <= 1) {
+            batch.forEach(this::deliver);
+            return;
+        }
+        CompletableFuture<?>[] deliveries = batch.stream()
+                .map(message -> CompletableFuture.runAsync(() -> deliver(message), deliveryExecutor))
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(deliveries).join();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        retryWheel.stop();
+        triggerExecutor.shutdown();
+        deliveryExecutor.shutdown();
+    }
+
+    private void deliver(EmailOutboxMessage message) {
+        String domain = domainOf(message.getRecipient());
+        long waitNanos = domainLimiter.tryAcquire(domain);
+        if (waitNanos > 0) {
+            defer(message, deferralDelay(domain, waitNanos));
+            return;
+        }
+        try {
+            send(message.getRecipient(), message.getSubject(), message.getBody());
+            transactionTemplate.executeWithoutResult(status -> outboxRepository.deleteSent(message.getId()));
+            sentCounter.increment();
+            logger.info("Email enviado com sucesso para: {}", message.getRecipient());
+        } catch (Exception e) {
+            String error = truncate(e.getMessage());
+            if (message.getAttempts() >= maxAttempts) {
+                transactionTemplate.executeWithoutResult(status -> outboxRepository.markFailedAttempt(
+                        message.getId(), EmailOutboxMessage.Status.FAILED, message.getNextAttemptAt(), error));
+                failedCounter.increment();
+                logger.error("Falha permanente ao enviar email para: {} após {} tentativas: {}",
+                        message.getRecipient(), message.getAttempts(), error);
+            } else {
+                Duration delay = withJitter(backoff(message.getAttempts()));
+                LocalDateTime nextAttempt = LocalDateTime.now().plus(delay);
+                transactionTemplate.executeWithoutResult(status -> outboxRepository.markFailedAttempt(
+                        message.getId(), EmailOutboxMessage.Status.PENDING, nextAttempt, error));
+                retriedCounter.increment();
+                if (!retryWheel.schedule(message.getId(), delay)) {
+                    // Roda cheia: a mensagem já está reagendada no banco e será pega pela varredura periódica
+                    retryOverflowCounter.increment();
+                }
+                logger.warn("Falha ao enviar email para: {} (tentativa {}); nova tentativa em {}: {}",
+                        message.getRecipient(), message.getAttempts(), nextAttempt, error);
+            }
+        }
+    }
+
+    private void defer(EmailOutboxMessage message, Duration delay) {
+        transactionTemplate.executeWithoutResult(status ->
+                outboxRepository.defer(message.getId(), LocalDateTime.now().plus(delay)));
+        throttledCounter.increment();
+        if (!retryWheel.schedule(message.getId(), delay)) {
+            retryOverflowCounter.increment();
+        }
+        logger.debug("Envio para {} adiado {} ms pelo limite de taxa do domínio", message.getRecipient(), delay.toMillis());
+    }
+
+    /**
+     * Consome um token do domínio do destinatário, para quem envia direto pelo pool SMTP (broadcast)
+     *
+     * @return 0 se o envio foi permitido; caso contrário, os nanossegundos até o próximo token
+     */
+    long tryAcquireDomain(String recipient) {
+        return domainLimiter.tryAcquire(domainOf(recipient));
+    }
+
+    /**
+     * Atraso de um envio adiado: o próximo token do domínio ou, se já há envios adiados esperando por ele, um
+     * intervalo de reposição depois do último deles
+     */
+    Duration deferralDelay(String domain, long waitNanos) {
+        long now = System.nanoTime();
+        long refillIntervalNanos = Duration.ofMillis(domainRateRefillPeriodMs).toNanos() / domainRateRefillTokens;
+        long slot = deferralSlots.merge(domain, now + waitNanos,
+                (previous, next) -> previous - now > 0 ? Math.max(next, previous + refillIntervalNanos) : next);
+        return Duration.ofNanos(slot - now);
+    }
+
+    /**
+     * Domínio do destinatário, em minúsculas; é a chave do limite de taxa
+     */
+    static String domainOf(String recipient) {
+        int at = recipient.lastIndexOf('@');
+        return (at >= 0 ? recipient.substring(at + 1) : recipient).toLowerCase(Locale.ROOT);
+    }
+
+    @Scheduled(fixedDelayString = "${app.email.domain-rate.refill-period:60000}")
+    public void sweepIdleDomains() {
+        domainLimiter.sweep();
+        long now = System.nanoTime();
+        deferralSlots.entrySet().removeIf(entry -> entry.getValue() - now < 0);
+    }
+
+    /**
+     * Mensagem de parte única text/html com o corpo já renderizado, sem montar um multipart
+     */
+    void send(String to, String subject, byte[] body) throws MessagingException {
+        MimeMessage message = transportPool.createMimeMessage();
+        message.setFrom(new InternetAddress(fromEmail));
+        message.setRecipient(Message.RecipientType.TO, new InternetAddress(to));
+        message.setSubject(subject, "UTF-8");
+        message.setDataHandler(new DataHandler(new ByteArrayDataSource(body, HTML_CONTENT_TYPE)));
+
+        transportPool.send(message);
+    }
+
+    /**
+     * backoff-initial * 2^(tentativas - 1), limitado a backoff-max
+     */
+    Duration backoff(int attempts) {
+        int exponent = Math.min(Math.max(attempts - 1, 0), 30);
+        return Duration.ofMillis(Math.min(backoffMaxMs, backoffInitialMs << exponent));
+    }
+
+    /**
+     * Menor tempo entre a primeira e a última tentativa, com todo o jitter sorteado para baixo: a indisponibilidade
+     * do SMTP que uma mensagem garantidamente atravessa antes de virar FAILED
+     */
+    Duration minimumRetryWindow() {
+        Duration total = Duration.ZERO;
+        for (int attempts = 1; attempts < maxAttempts; attempts++) {
+            total = total.plus(backoff(attempts));
+        }
+        return Duration.ofMillis((long) (total.toMillis() * (1.0 - Math.min(Math.max(backoffJitter, 0.0), 1.0))));
+    }
+
+    /**
+     * Sorteia o atraso em [delay * (1 - backoff-jitter), delay]
+     */
+    Duration withJitter(Duration delay) {
+        long millis = delay.toMillis();
+        long jitter = (long) (millis * Math.min(Math.max(backoffJitter, 0.0), 1.0));
+        return Duration.ofMillis(millis - (jitter > 0 ? ThreadLocalRandom.current().nextLong(jitter + 1) : 0L));
+    }
+
+    private void refreshGauges() {
+        queueDepth.set(outboxRepository.countByStatus(EmailOutboxMessage.Status.PENDING));
+        oldestAgeSeconds.set(outboxRepository.findOldestPendingCreatedAt()
+                .map(createdAt -> Math.max(0L, Duration.between(createdAt, LocalDateTime.now()).getSeconds()))
+                .orElse(0L));
+    }
+
+    private static String truncate(String error) {
+        if (error == null) {
+            return null;
+        }
+        return error.length() > 500 ? error.substring(0, 500) : error;
+    }
+}
@@ -0,0 +1,265 @@
+package com.backend.tessera.service;
+
+import com.backend.tessera.config.LoggerConfig;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Templates de email em templates/email/*.html, compilados uma única vez no startup.
+ *
+ * Cada arquivo começa com a linha "Subject: ..." seguida de uma linha em branco e do corpo HTML, onde
+ * {{nome}} marca uma variável. Na compilação o corpo é dividido em trechos estáticos, já codificados em
+ * UTF-8, e variáveis; a renderização apenas copia esses bytes e escreve os valores, escapados para HTML e
+ * codificados em UTF-8, direto no corpo.
+ * Versões traduzidas usam o sufixo do locale (ex.: password-reset_en.html) e recaem no arquivo sem sufixo.
+ */
+@Component
+public class EmailTemplateEngine {
+    private static final Logger logger = LoggerConfig.getLogger(EmailTemplateEngine.class);
+
+    private static final String SUBJECT_PREFIX = "Subject:";
+
+    @Value("${app.email.templates.location:classpath*:templates/email/*.html}")
+    private String location = "classpath*:templates/email/*.html";
+
+    private final Map<String, CompiledTemplate> templates = new HashMap<>();
+
+    // (nome, locale) -> template escolhido, para não repetir a busca com fallback a cada envio
+    private final Map<String, Map<Locale, CompiledTemplate>> resolved = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() throws IOException {
+        Resource[] resources = new PathMatchingResourcePatternResolver().getResources(location);
+        for (Resource resource : resources) {
+            String filename = resource.getFilename();
+            if (filename == null) {
+                continue;
+            }
+            try (InputStream in = resource.getInputStream()) {
+                String name = filename.substring(0, filename.length() - ".html".length());
+                templates.put(name, compile(name, new String(in.readAllBytes(), StandardCharsets.UTF_8)));
+            }
+        }
+        logger.info("{} templates de email compilados", templates.size());
+    }
+
+    /**
+     * Renderiza o template no locale informado (ou no mais próximo disponível)
+     */
+    public RenderedEmail render(String name, Locale locale, Map<String, String> variables) {
+        CompiledTemplate template = resolved
+                .computeIfAbsent(name, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(locale != null ? locale : Locale.ROOT, key -> resolve(name, key));
+        return new RenderedEmail(template.subject, template.render(variables));
+    }
+
+    private CompiledTemplate resolve(String name, Locale locale) {
+        if (locale != null) {
+            CompiledTemplate template = templates.get(name + "_" + locale);
+            if (template == null && !locale.getLanguage().isEmpty()) {
+                template = templates.get(name + "_" + locale.getLanguage());
+            }
+            if (template != null) {
+                return template;
+            }
+        }
+        CompiledTemplate template = templates.get(name);
+        if (template == null) {
+            throw new IllegalArgumentException("Template de email não encontrado: " + name);
+        }
+        return template;
+    }
+
+    static CompiledTemplate compile(String name, String source) {
+        String text = source.replace("\r\n", "\n");
+        if (!text.startsWith(SUBJECT_PREFIX)) {
+            throw new IllegalStateException("Template de email sem linha Subject: " + name);
+        }
+        int headerEnd = text.indexOf("\n\n");
+        if (headerEnd < 0) {
+            throw new IllegalStateException("Template de email sem corpo: " + name);
+        }
+        String subject = text.substring(SUBJECT_PREFIX.length(), headerEnd).trim();
+        String body = text.substring(headerEnd + 2);
+
+        List<byte[]> staticParts = new ArrayList<>();
+        List<String> variableNames = new ArrayList<>();
+        int position = 0;
+        while (true) {
+            int start = body.indexOf("{{", position);
+            if (start < 0) {
+                break;
+            }
+            int end = body.indexOf("}}", start);
+            if (end < 0) {
+                throw new IllegalStateException("Variável não fechada no template de email: " + name);
+            }
+            staticParts.add(body.substring(position, start).getBytes(StandardCharsets.UTF_8));
+            variableNames.add(body.substring(start + 2, end).trim());
+            position = end + 2;
+        }
+        staticParts.add(body.substring(position).getBytes(StandardCharsets.UTF_8));
+        return new CompiledTemplate(subject, staticParts.toArray(new byte[0][]), variableNames.toArray(new String[0]));
+    }
+
+    /**
+     * Template compilado: staticParts[i] é seguido de variableNames[i]; o último trecho estático fecha o corpo
+     */
+    static final class CompiledTemplate {
+        private final String subject;
+        private final byte[][] staticParts;
+        private final String[] variableNames;
+        private final int staticLength;
+
+        private CompiledTemplate(String subject, byte[][] staticParts, String[] variableNames) {
+            this.subject = subject;
+            this.staticParts = staticParts;
+            this.variableNames = variableNames;
+            int length = 0;
+            for (byte[] part : staticParts) {
+                length += part.length;
+            }
+            this.staticLength = length;
+        }
+
+        byte[] render(Map<String, String> variables) {
+            // Primeira passada só mede os valores escapados, para alocar o corpo com o tamanho exato; a segunda
+            // escapa e codifica cada valor direto no corpo, sem String nem byte[] intermediários
+            String[] values = new String[variableNames.length];
+            int length = staticLength;
+            for (int i = 0; i < variableNames.length; i++) {
+                values[i] = variables.get(variableNames[i]);
+                if (values[i] != null) {
+                    length += escapedLength(values[i]);
+                }
+            }
+
+            byte[] body = new byte[length];
+            int position = 0;
+            for (int i = 0; i < variableNames.length; i++) {
+                System.arraycopy(staticParts[i], 0, body, position, staticParts[i].length);
+                position += staticParts[i].length;
+                if (values[i] != null) {
+                    position = writeEscaped(values[i], body, position);
+                }
+            }
+            byte[] last = staticParts[staticParts.length - 1];
+            System.arraycopy(last, 0, body, position, last.length);
+            return body;
+        }
+    }
+
+    /**
+     * Tamanho em bytes do valor escapado para HTML e codificado em UTF-8
+     */
+    static int escapedLength(String value) {
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '&', '\'' -> length += 5;
+                case '<', '>' -> length += 4;
+                case '"' -> length += 6;
+                default -> {
+                    if (c < 0x80) {
+                        length += 1;
+                    } else if (c < 0x800) {
+                        length += 2;
+                    } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                            && Character.isLowSurrogate(value.charAt(i + 1))) {
+                        length += 4;
+                        i++;
+                    } else if (Character.isSurrogate(c)) {
+                        // Surrogate isolado vira '?', como em String.getBytes
+                        length += 1;
+                    } else {
+                        length += 3;
+                    }
+                }
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Escreve o valor escapado para HTML, em UTF-8, a partir de position
+     *
+     * @return a posição seguinte ao último byte escrito
+     */
+    static int writeEscaped(String value, byte[] out, int position) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '&' -> position = writeAscii("&amp;", out, position);
+                case '<' -> position = writeAscii("&lt;", out, position);
+                case '>' -> position = writeAscii("&gt;", out, position);
+                case '"' -> position = writeAscii("&quot;", out, position);
+                case '\'' -> position = writeAscii("&#39;", out, position);
+                default -> {
+                    if (c < 0x80) {
+                        out[position++] = (byte) c;
+                    } else if (c < 0x800) {
+                        out[position++] = (byte) (0xC0 | (c >> 6));
+                        out[position++] = (byte) (0x80 | (c & 0x3F));
+                    } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                            && Character.isLowSurrogate(value.charAt(i + 1))) {
+                        int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                        out[position++] = (byte) (0xF0 | (codePoint >> 18));
+                        out[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                        out[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                        out[position++] = (byte) (0x80 | (codePoint & 0x3F));
+                    } else if (Character.isSurrogate(c)) {
+                        out[position++] = '?';
+                    } else {
+                        out[position++] = (byte) (0xE0 | (c >> 12));
+                        out[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                        out[position++] = (byte) (0x80 | (c & 0x3F));
+                    }
+                }
+            }
+        }
+        return position;
+    }
+
+    private static int writeAscii(String entity, byte[] out, int position) {
+        for (int i = 0; i < entity.length(); i++) {
+            out[position++] = (byte) entity.charAt(i);
+        }
+        return position;
+    }
+
+    /**
+     * Assunto e corpo HTML (UTF-8) de um email renderizado
+     */
+    public static final class RenderedEmail {
+        private final String subject;
+        private final byte[] body;
+
+        public RenderedEmail(String subject, byte[] body) {
+            this.subject = subject;
+            this.body = body;
+        }
+
+        public String getSubject() {
+            return subject;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+    }
+}
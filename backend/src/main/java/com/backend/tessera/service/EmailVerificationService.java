@@ -11,6 +11,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Optional;
 
@@ -27,9 +28,16 @@ public class EmailVerificationService {
     @Autowired
     private EmailService emailService;
 
+    @Autowired
+    private UserCacheService userCacheService;
+
     @Value("${app.token.email.verification.duration}")
     private int emailVerificationTokenDuration;
 
+    // Pedidos repetidos dentro da janela reaproveitam o token atual e o email já enfileirado
+    @Value("${app.email.coalesce.window:60000}")
+    private long coalesceWindowMs;
+
     /**
      * Cria e envia um token de verificação de email para o usuário
      * @return true se o processo foi iniciado com sucesso, false caso contrário
@@ -37,17 +45,20 @@ public class EmailVerificationService {
     @Transactional
     public boolean sendVerificationEmail(User user) {
         try {
+            Optional<VerificationToken> currentToken = tokenRepository.findFirstByUserIdAndTokenTypeAndUsedFalseOrderByIdDesc(
+                    user.getId(), VerificationToken.TokenType.EMAIL_VERIFICATION);
+            if (currentToken.isPresent() && currentToken.get().isIssuedWithin(Duration.ofMillis(coalesceWindowMs))) {
+                logger.debug("Verificação de email já enviada há pouco para {}; reaproveitando o token atual",
+                        user.getUsername());
+                return true;
+            }
+
             logger.debug("Gerando token de verificação de email para usuário: {}", user.getUsername());
             
             // Invalidar qualquer token anterior
-            Optional<VerificationToken> existingToken = tokenRepository.findByUserIdAndTokenType(
-                    user.getId(), VerificationToken.TokenType.EMAIL_VERIFICATION);
-            
-            existingToken.ifPresent(token -> {
-                token.setUsed(true);
-                tokenRepository.save(token);
+            if (tokenRepository.invalidateUnused(user.getId(), VerificationToken.TokenType.EMAIL_VERIFICATION) > 0) {
                 logger.debug("Token anterior invalidado para usuário: {}", user.getUsername());
-            });
+            }
             
             // Criar novo token
             VerificationToken token = VerificationToken.createEmailVerificationToken(user, emailVerificationTokenDuration);
@@ -105,6 +116,7 @@ public class EmailVerificationService {
         
         userRepository.save(user);
         tokenRepository.save(verificationToken);
+        userCacheService.evict(user.getUsername());
         
         logger.info("Email verificado com sucesso para usuário: {}", user.getUsername());
         return true;
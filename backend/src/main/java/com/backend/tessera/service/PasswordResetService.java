@@ -5,13 +5,14 @@ import com.backend.tessera.model.User;
 import com.backend.tessera.model.VerificationToken;
 import com.backend.tessera.repository.UserRepository;
 import com.backend.tessera.repository.VerificationTokenRepository;
+import com.backend.tessera.security.PasswordHashingExecutor;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.util.Optional;
 
 @Service
@@ -28,11 +29,18 @@ public class PasswordResetService {
     private EmailService emailService;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingExecutor passwordHashingExecutor;
+
+    @Autowired
+    private UserCacheService userCacheService;
 
     @Value("${app.token.password.reset.duration}")
     private int passwordResetTokenDuration;
 
+    // Pedidos repetidos dentro da janela reaproveitam o token atual e o email já enfileirado
+    @Value("${app.email.coalesce.window:60000}")
+    private long coalesceWindowMs;
+
     /**
      * Solicita a redefinição de senha para um email
      */
@@ -45,16 +53,19 @@ public class PasswordResetService {
         if (userOpt.isPresent()) {
             User user = userOpt.get();
             logger.debug("Usuário encontrado: {}", user.getUsername());
-            
-            // Invalidar qualquer token anterior
-            Optional<VerificationToken> existingToken = tokenRepository.findByUserIdAndTokenType(
+
+            Optional<VerificationToken> currentToken = tokenRepository.findFirstByUserIdAndTokenTypeAndUsedFalseOrderByIdDesc(
                     user.getId(), VerificationToken.TokenType.PASSWORD_RESET);
+            if (currentToken.isPresent() && currentToken.get().isIssuedWithin(Duration.ofMillis(coalesceWindowMs))) {
+                logger.debug("Redefinição de senha já solicitada há pouco para {}; reaproveitando o token atual",
+                        user.getUsername());
+                return;
+            }
             
-            existingToken.ifPresent(token -> {
-                token.setUsed(true);
-                tokenRepository.save(token);
+            // Invalidar qualquer token anterior
+            if (tokenRepository.invalidateUnused(user.getId(), VerificationToken.TokenType.PASSWORD_RESET) > 0) {
                 logger.debug("Token anterior invalidado para usuário: {}", user.getUsername());
-            });
+            }
             
             // Criar novo token
             VerificationToken token = VerificationToken.createPasswordResetToken(user, passwordResetTokenDuration);
@@ -137,12 +148,13 @@ public class PasswordResetService {
         }
         
         User user = resetToken.getUser();
-        user.setPassword(passwordEncoder.encode(newPassword));
+        user.setPassword(passwordHashingExecutor.encode(newPassword));
         
         resetToken.setUsed(true);
         
         userRepository.save(user);
         tokenRepository.save(resetToken);
+        userCacheService.evict(user.getUsername());
         
         logger.info("Senha redefinida com sucesso para usuário: {}", user.getUsername());
         return true;
@@ -0,0 +1,104 @@
+package com.backend.tessera.service;
+
+import com.backend.tessera.config.LoggerConfig;
+import com.backend.tessera.exception.ServiceOverloadedException;
+import com.backend.tessera.repository.UserRepository;
+import com.backend.tessera.security.PasswordHashingExecutor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Regrava em segundo plano hashes de senha com algoritmo ou custo desatualizado.
+ *
+ * Chamado após um login bem-sucedido, quando a senha em texto claro está disponível. A gravação é
+ * condicional ao hash lido no login, de modo que uma troca de senha concorrente nunca é sobrescrita.
+ *
+ * As regravações rodam em uma thread própria com fila limitada (app.security.password-upgrade.queue-capacity),
+ * e não no pool compartilhado do @Async: numa rajada de logins a fila enche e as regravações excedentes são
+ * descartadas (métrica tessera.password.upgrade.discarded), sem nunca falhar o login que as pediu. A senha
+ * continua com o hash antigo e é regravada num próximo login.
+ */
+@Service
+public class PasswordUpgradeService {
+    private static final Logger logger = LoggerConfig.getLogger(PasswordUpgradeService.class);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordHashingExecutor passwordHashingExecutor;
+
+    @Autowired
+    private UserCacheService userCacheService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.security.password-upgrade.queue-capacity:100}")
+    private int queueCapacity;
+
+    private ThreadPoolExecutor executor;
+    private Counter discardedCounter;
+
+    @PostConstruct
+    public void init() {
+        this.discardedCounter = Counter.builder("tessera.password.upgrade.discarded")
+                .description("Regravações de hash de senha descartadas por fila cheia")
+                .register(meterRegistry);
+        this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-upgrade");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (task, pool) -> {
+                    discardedCounter.increment();
+                    logger.debug("Fila de regravação de hashes cheia; regravação descartada até o próximo login");
+                });
+        Gauge.builder("tessera.password.upgrade.queue.size", executor, e -> e.getQueue().size())
+                .description("Regravações de hash de senha aguardando na fila")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Agenda a regravação do hash; nunca lança exceção para o login que a pediu
+     */
+    public void upgradeAsync(Long userId, String username, String currentHash, String rawPassword) {
+        executor.execute(() -> upgrade(userId, username, currentHash, rawPassword));
+    }
+
+    private void upgrade(Long userId, String username, String currentHash, String rawPassword) {
+        try {
+            String newHash = passwordHashingExecutor.encode(rawPassword);
+            int updated = userRepository.updatePasswordIfUnchanged(userId, currentHash, newHash);
+            if (updated > 0) {
+                userCacheService.evict(username);
+                logger.info("Hash de senha atualizado para o custo atual: {}", username);
+            } else {
+                logger.debug("Hash de senha não atualizado (senha alterada ou usuário inexistente): {}", username);
+            }
+        } catch (ServiceOverloadedException e) {
+            // Nova tentativa acontece no próximo login
+            logger.debug("Atualização do hash adiada por sobrecarga do executor de hashing: {}", username);
+        } catch (Exception e) {
+            logger.warn("Falha ao atualizar o hash de senha de {}: {}", username, e.getMessage());
+        }
+    }
+}
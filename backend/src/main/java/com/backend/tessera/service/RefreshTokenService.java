@@ -1,21 +1,39 @@
 package com.backend.tessera.service;
 
 import com.backend.tessera.config.LoggerConfig;
-import com.backend.tessera.exception.ResourceNotFoundException;
 import com.backend.tessera.model.RefreshToken;
 import com.backend.tessera.model.User;
 import com.backend.tessera.repository.RefreshTokenRepository;
+import com.backend.tessera.repository.RefreshTokenRepository.SessionView;
 import com.backend.tessera.repository.UserRepository;
+import com.backend.tessera.exception.RefreshTokenConflictException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Base64;
 import java.util.Optional;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 @Service
 public class RefreshTokenService {
@@ -27,13 +45,60 @@ public class RefreshTokenService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Value("${jwt.refresh.expiration}")
     private int refreshTokenDurationMs;
 
+    @Value("${jwt.secret}")
+    private String secretString;
+
+    @Value("${app.refresh-token.cleanup.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${app.refresh-token.cleanup.chunk-pause:100}")
+    private long chunkPauseMs;
+
+    @Value("${app.refresh-token.cleanup.revoked-grace:86400000}")
+    private long revokedGraceMs;
+
+    // Janela em que uma requisição concorrente com o token já consumido recebe o sucessor
+    @Value("${app.refresh-token.rotation.grace-period:10000}")
+    private long rotationGraceMs;
+
+    // Máximo de sessões ativas por usuário; ao exceder, as mais antigas são revogadas (0 desativa o limite)
+    @Value("${app.session.max-per-user:10}")
+    private int maxSessionsPerUser;
+
+    private TransactionTemplate transactionTemplate;
+
+    // Chave HMAC que deriva o sucessor a partir do token consumido (ver successorTokenFor)
+    private SecretKeySpec successorKey;
+
+    @PostConstruct
+    public void init() throws GeneralSecurityException {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        byte[] keyBytes = MessageDigest.getInstance("SHA-256")
+                .digest(("tessera-refresh-successor:" + secretString).getBytes(StandardCharsets.UTF_8));
+        this.successorKey = new SecretKeySpec(keyBytes, "HmacSHA256");
+    }
+
+    /**
+     * Cria um refresh token para um usuário já carregado pelo chamador.
+     * Na mesma transação, revoga as sessões mais antigas que excederem app.session.max-per-user; a linha do
+     * usuário é bloqueada antes da contagem para que logins concorrentes não ultrapassem o limite. Sem limite,
+     * usa uma referência à entidade (sem SELECT) para a chave estrangeira.
+     */
     @Transactional
-    public RefreshToken createRefreshToken(String username, String userAgent, String ipAddress) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> ResourceNotFoundException.forUser(username));
+    public RefreshToken createRefreshToken(User authenticatedUser, String userAgent, String ipAddress) {
+        User user = maxSessionsPerUser > 0
+                ? userRepository.findByIdForUpdate(authenticatedUser.getId())
+                        .orElseThrow(() -> new IllegalArgumentException("Usuário não encontrado"))
+                : userRepository.getReferenceById(authenticatedUser.getId());
 
         // Garantir que userAgent e ipAddress não são nulos
         String safeUserAgent = userAgent != null ? userAgent : "Desconhecido";
@@ -42,23 +107,143 @@ public class RefreshTokenService {
         RefreshToken refreshToken = RefreshToken.createToken(
                 user, refreshTokenDurationMs, safeUserAgent, safeIpAddress);
 
-        logger.debug("Criando refresh token para usuário: {}", username);
+        logger.debug("Criando refresh token para usuário: {}", authenticatedUser.getUsername());
+        evictOldestSessions(authenticatedUser);
         return refreshTokenRepository.save(refreshToken);
     }
 
+    /**
+     * Abre espaço para a nova sessão revogando as mais antigas com um único UPDATE
+     */
+    private void evictOldestSessions(User user) {
+        if (maxSessionsPerUser <= 0) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> active = refreshTokenRepository.findActiveSessionIds(user.getId(), now);
+        int excess = active.size() - maxSessionsPerUser + 1;
+        if (excess > 0) {
+            refreshTokenRepository.revokeAllByIdIn(active.subList(0, excess), now);
+            logger.info("Limite de {} sessões atingido; {} sessões mais antigas revogadas para o usuário: {}",
+                    maxSessionsPerUser, excess, user.getUsername());
+        }
+    }
+
+    /**
+     * Sessões ativas do usuário, da mais recente para a mais antiga
+     */
     @Transactional(readOnly = true)
-    public Optional<RefreshToken> findByToken(String token) {
-        return refreshTokenRepository.findByToken(token);
+    public List<SessionView> listActiveSessions(Long userId) {
+        return refreshTokenRepository.findActiveSessions(userId, LocalDateTime.now());
     }
 
+    /**
+     * Revoga todas as sessões do usuário, exceto a do refresh token informado
+     *
+     * @return quantidade de tokens revogados
+     */
     @Transactional
-    public RefreshToken verifyExpiration(RefreshToken token) {
-        if (token.isExpired() || token.isRevoked()) {
-            refreshTokenRepository.delete(token);
-            logger.warn("Refresh token expirado ou revogado: {}", token.getToken());
+    public int revokeOtherSessions(Long userId, String currentToken) {
+        RefreshToken current = refreshTokenRepository.findByTokenHash(RefreshToken.hashToken(currentToken))
+                .filter(token -> token.getUser().getId().equals(userId) && !token.isRevoked() && !token.isExpired()
+                        && token.getTokenVersion() >= token.getUser().getTokenVersion())
+                .orElseThrow(() -> new IllegalArgumentException("Refresh token da sessão atual inválido"));
+
+        String familyId = current.getFamilyId();
+        if (familyId == null) {
+            // Token anterior à rotação: passa a ter família para ser preservado pelo UPDATE
+            familyId = UUID.randomUUID().toString();
+            current.setFamilyId(familyId);
+            refreshTokenRepository.saveAndFlush(current);
+        }
+        int revoked = refreshTokenRepository.revokeOtherSessions(userId, familyId, LocalDateTime.now());
+        logger.info("{} sessões encerradas para o usuário: {}", revoked, current.getUser().getUsername());
+        return revoked;
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<RefreshToken> findByToken(String token) {
+        return refreshTokenRepository.findByTokenHash(RefreshToken.hashToken(token));
+    }
+
+    /**
+     * Troca o refresh token apresentado por um sucessor da mesma família.
+     *
+     * O token é consumido por um único UPDATE condicional: entre requisições concorrentes com o mesmo token
+     * (ex.: várias abas), apenas uma vence e cria o sucessor. As demais, dentro de
+     * app.refresh-token.rotation.grace-period, recebem o sucessor já emitido; fora dessa janela, o uso de um
+     * token consumido é tratado como roubo e toda a família é revogada.
+     *
+     * O valor do sucessor é derivado do token consumido (HMAC com chave do servidor), de modo que qualquer
+     * instância, não só a que rotacionou, consegue devolvê-lo a partir do banco dentro da janela de carência.
+     */
+    public RotatedRefreshToken rotateRefreshToken(String token, String userAgent, String ipAddress) {
+        byte[] tokenHash = RefreshToken.hashToken(token);
+        RefreshToken current = refreshTokenRepository.findByTokenHash(tokenHash)
+                .orElseThrow(() -> new RuntimeException("Refresh token não encontrado ou inválido! Por favor, faça login novamente."));
+        if (current.isExpired() || current.isRevoked()
+                || current.getTokenVersion() < current.getUser().getTokenVersion()) {
+            logger.warn("Refresh token expirado ou revogado para o usuário: {}", current.getUser().getUsername());
             throw new RuntimeException("Refresh token expirado. Por favor, faça login novamente.");
         }
-        return token;
+
+        LocalDateTime now = LocalDateTime.now();
+        // Tokens anteriores à rotação não têm família; passam a ter uma a partir do primeiro consumo
+        String familyId = current.getFamilyId() != null ? current.getFamilyId() : UUID.randomUUID().toString();
+
+        RotatedRefreshToken rotated = transactionTemplate.execute(status -> {
+            if (refreshTokenRepository.consume(current.getId(), familyId, now) == 0) {
+                return null;
+            }
+            RefreshToken successor = refreshTokenRepository.save(RefreshToken.createSuccessor(current,
+                    successorTokenFor(token), familyId, refreshTokenDurationMs,
+                    userAgent != null ? userAgent : "Desconhecido",
+                    ipAddress != null ? ipAddress : "0.0.0.0"));
+            return new RotatedRefreshToken(current.getUser(), successor.getToken());
+        });
+        if (rotated != null) {
+            logger.debug("Refresh token rotacionado para o usuário: {}", current.getUser().getUsername());
+            return rotated;
+        }
+
+        // Outra requisição consumiu o token primeiro, ou o token está sendo reutilizado
+        LocalDateTime consumedAt = refreshTokenRepository.findConsumedAtById(current.getId()).orElse(null);
+        if (consumedAt == null) {
+            throw new RuntimeException("Refresh token expirado. Por favor, faça login novamente.");
+        }
+        if (consumedAt.isAfter(now.minus(Duration.ofMillis(rotationGraceMs)))) {
+            // O consumo e o sucessor são gravados na mesma transação: se o consumo é visível, o sucessor também
+            String successorToken = successorTokenFor(token);
+            boolean successorValid = refreshTokenRepository.findByTokenHash(RefreshToken.hashToken(successorToken))
+                    .filter(successor -> !successor.isRevoked() && !successor.isExpired())
+                    .isPresent();
+            if (successorValid) {
+                logger.debug("Refresh token já rotacionado; devolvendo o sucessor ao usuário: {}",
+                        current.getUser().getUsername());
+                return new RotatedRefreshToken(current.getUser(), successorToken);
+            }
+            throw new RefreshTokenConflictException("Renovação de sessão em andamento. Tente novamente.");
+        }
+
+        transactionTemplate.executeWithoutResult(status -> refreshTokenRepository.revokeFamily(familyId, now));
+        logger.warn("Reuso de refresh token consumido detectado; família revogada para o usuário: {}",
+                current.getUser().getUsername());
+        throw new RuntimeException("Refresh token já utilizado. Por segurança, faça login novamente.");
+    }
+
+    /**
+     * Valor em claro do sucessor de um token: HMAC-SHA256 do token consumido. Só quem apresenta o token
+     * consumido obtém o sucessor, e todas as instâncias chegam ao mesmo valor
+     */
+    private String successorTokenFor(String consumedToken) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(successorKey);
+            byte[] derived = mac.doFinal(consumedToken.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(derived);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 não disponível", e);
+        }
     }
 
     @Transactional
@@ -67,22 +252,88 @@ public class RefreshTokenService {
         logger.info("Refresh tokens excluídos para o usuário ID: {}", userId);
     }
 
+    /**
+     * Revoga a sessão do token (toda a família de rotação) com um único UPDATE
+     */
     @Transactional
     public void revokeToken(String token) {
-        RefreshToken refreshToken = refreshTokenRepository.findByToken(token)
+        RefreshToken refreshToken = refreshTokenRepository.findByTokenHash(RefreshToken.hashToken(token))
                 .orElseThrow(() -> new RuntimeException("Refresh token não encontrado!"));
-        
-        refreshToken.setRevoked(true);
-        refreshTokenRepository.save(refreshToken);
-        logger.info("Refresh token revogado: {}", token);
+
+        LocalDateTime now = LocalDateTime.now();
+        if (refreshToken.getFamilyId() != null) {
+            refreshTokenRepository.revokeFamily(refreshToken.getFamilyId(), now);
+        } else {
+            refreshTokenRepository.revokeById(refreshToken.getId(), now);
+        }
+        logger.info("Refresh token revogado para o usuário: {}", refreshToken.getUser().getUsername());
     }
 
-    @Scheduled(fixedRate = 86400000) // Executa a cada 24 horas
-    @Transactional
+    /**
+     * Remove tokens expirados e tokens revogados há mais de app.refresh-token.cleanup.revoked-grace.
+     *
+     * Cada lote seleciona até chunk-size ids pelo índice e os remove em uma transação própria, com uma pausa
+     * entre lotes, para não carregar a tabela inteira na memória nem manter locks em uma transação longa.
+     */
+    @Scheduled(fixedRateString = "${app.refresh-token.cleanup.interval:86400000}")
     public void cleanupExpiredTokens() {
         logger.info("Limpando tokens expirados...");
-        refreshTokenRepository.findAll().stream()
-                .filter(RefreshToken::isExpired)
-                .forEach(refreshTokenRepository::delete);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        LocalDateTime now = LocalDateTime.now();
+
+        long expired = purgeInChunks("expired", pageable -> refreshTokenRepository.findExpiredIds(now, pageable));
+        LocalDateTime revokedCutoff = now.minus(Duration.ofMillis(revokedGraceMs));
+        long revoked = purgeInChunks("revoked", pageable -> refreshTokenRepository.findRevokedIdsBefore(revokedCutoff, pageable));
+
+        long elapsedNanos = sample.stop(meterRegistry.timer("tessera.refresh_tokens.purge.duration"));
+        logger.info("Limpeza de refresh tokens concluída: {} expirados e {} revogados removidos em {} ms",
+                expired, revoked, TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+    }
+
+    private long purgeInChunks(String reason, Function<Pageable, List<Long>> idSelector) {
+        Pageable chunk = PageRequest.of(0, chunkSize);
+        long total = 0;
+        while (true) {
+            Integer deleted = transactionTemplate.execute(status -> {
+                List<Long> ids = idSelector.apply(chunk);
+                return ids.isEmpty() ? 0 : refreshTokenRepository.deleteAllByIdIn(ids);
+            });
+            if (deleted == null || deleted == 0) {
+                return total;
+            }
+            total += deleted;
+            meterRegistry.counter("tessera.refresh_tokens.purged", "reason", reason).increment(deleted);
+            if (deleted < chunkSize) {
+                return total;
+            }
+            try {
+                Thread.sleep(chunkPauseMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.warn("Limpeza de refresh tokens interrompida após {} registros ({})", total, reason);
+                return total;
+            }
+        }
+    }
+
+    /**
+     * Resultado da rotação: o usuário dono da sessão e o novo refresh token
+     */
+    public static final class RotatedRefreshToken {
+        private final User user;
+        private final String refreshToken;
+
+        RotatedRefreshToken(User user, String refreshToken) {
+            this.user = user;
+            this.refreshToken = refreshToken;
+        }
+
+        public User getUser() {
+            return user;
+        }
+
+        public String getRefreshToken() {
+            return refreshToken;
+        }
     }
-}
\ No newline at end of file
+}
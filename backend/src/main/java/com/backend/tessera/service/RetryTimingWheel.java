@@ -0,0 +1,190 @@
+package com.backend.tessera.service;
+
+import com.backend.tessera.config.LoggerConfig;
+import org.slf4j.Logger;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Agendador de retentativas baseado em uma roda de tempo com hash (hashed timing wheel).
+ *
+ * A roda tem wheelSize posições; cada posição cobre um tick e guarda os itens cujo prazo cai nele (módulo
+ * o tamanho da roda). Uma única thread avança um tick por vez e visita só a posição atual, então agendar e
+ * vencer custam O(1) independentemente de quantos itens aguardam. Itens com prazo mais distante que uma volta
+ * permanecem na posição e são comparados pelo prazo a cada passagem. O total de itens é limitado por
+ * capacity: quando a roda está cheia, schedule recusa o item e o chamador deve recorrer a outro mecanismo.
+ */
+public class RetryTimingWheel<T> {
+    private static final Logger logger = LoggerConfig.getLogger(RetryTimingWheel.class);
+
+    private final String name;
+    private final long tickNanos;
+    private final int mask;
+    private final int capacity;
+    private final Consumer<List<T>> handler;
+    private final LongSupplier nanoClock;
+
+    private final Queue<Timeout<T>>[] buckets;
+    // Novos itens entram por aqui e só a thread da roda mexe nas posições
+    private final Queue<Timeout<T>> incoming = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final long startNanos;
+    private long processedTick = -1;
+    private volatile Thread worker;
+
+    public RetryTimingWheel(String name, long tickMs, int wheelSize, int capacity, Consumer<List<T>> handler) {
+        this(name, tickMs, wheelSize, capacity, handler, System::nanoTime);
+    }
+
+    @SuppressWarnings("unchecked")
+    RetryTimingWheel(String name, long tickMs, int wheelSize, int capacity, Consumer<List<T>> handler,
+                     LongSupplier nanoClock) {
+        if (tickMs <= 0 || wheelSize <= 0 || capacity <= 0) {
+            throw new IllegalArgumentException("Tick, tamanho da roda e capacidade devem ser positivos");
+        }
+        int slots = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+        this.buckets = new Queue[slots];
+        for (int i = 0; i < slots; i++) {
+            buckets[i] = new ArrayDeque<>();
+        }
+        this.name = name;
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMs);
+        this.mask = slots - 1;
+        this.capacity = capacity;
+        this.handler = handler;
+        this.nanoClock = nanoClock;
+        this.startNanos = nanoClock.getAsLong();
+    }
+
+    /**
+     * Agenda o item para daqui a delay
+     *
+     * @return false se a roda já contém capacity itens (o item não foi agendado)
+     */
+    public boolean schedule(T item, Duration delay) {
+        if (size.incrementAndGet() > capacity) {
+            size.decrementAndGet();
+            return false;
+        }
+        incoming.add(new Timeout<>(item, nanoClock.getAsLong() + Math.max(0L, delay.toNanos())));
+        return true;
+    }
+
+    /**
+     * Itens agendados e ainda não vencidos
+     */
+    public int size() {
+        return size.get();
+    }
+
+    public synchronized void start() {
+        if (worker != null) {
+            return;
+        }
+        worker = new Thread(this::run, name);
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Para a thread da roda; os itens pendentes são descartados
+     */
+    public void stop() {
+        Thread thread = worker;
+        worker = null;
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join(TimeUnit.NANOSECONDS.toMillis(tickNanos) + 1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void run() {
+        while (worker == Thread.currentThread()) {
+            long nextTickAt = startNanos + (processedTick + 1) * tickNanos;
+            long sleepNanos = nextTickAt - nanoClock.getAsLong();
+            if (sleepNanos > 0) {
+                LockSupport.parkNanos(this, sleepNanos);
+                if (Thread.interrupted()) {
+                    return;
+                }
+                continue;
+            }
+            advance();
+        }
+    }
+
+    /**
+     * Processa os ticks decorridos até agora e entrega os itens vencidos ao handler
+     *
+     * @return quantidade de itens vencidos
+     */
+    int advance() {
+        long now = nanoClock.getAsLong();
+        long currentTick = (now - startNanos) / tickNanos;
+        transferIncoming();
+
+        List<T> expired = new ArrayList<>();
+        // Depois de uma volta completa todas as posições já foram visitadas
+        long firstTick = Math.max(processedTick + 1, currentTick - mask);
+        for (long tick = firstTick; tick <= currentTick; tick++) {
+            Iterator<Timeout<T>> iterator = buckets[(int) (tick & mask)].iterator();
+            while (iterator.hasNext()) {
+                Timeout<T> timeout = iterator.next();
+                if (timeout.deadline - now <= 0) {
+                    iterator.remove();
+                    expired.add(timeout.item);
+                }
+            }
+        }
+        processedTick = Math.max(processedTick, currentTick);
+
+        if (!expired.isEmpty()) {
+            size.addAndGet(-expired.size());
+            try {
+                handler.accept(expired);
+            } catch (Exception e) {
+                logger.error("Erro ao processar {} itens vencidos na roda {}: {}", expired.size(), name, e.getMessage(), e);
+            }
+        }
+        return expired.size();
+    }
+
+    private void transferIncoming() {
+        Timeout<T> timeout;
+        while ((timeout = incoming.poll()) != null) {
+            // Arredonda para cima para nunca vencer antes do prazo; prazos já passados vão para o próximo tick
+            long deadlineTick = ceilDiv(timeout.deadline - startNanos, tickNanos);
+            long tick = Math.max(deadlineTick, processedTick + 1);
+            buckets[(int) (tick & mask)].add(timeout);
+        }
+    }
+
+    private static long ceilDiv(long value, long divisor) {
+        return -Math.floorDiv(-value, divisor);
+    }
+
+    private static final class Timeout<T> {
+        private final T item;
+        private final long deadline;
+
+        private Timeout(T item, long deadline) {
+            this.item = item;
+            this.deadline = deadline;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.backend.tessera.service;
+
+import com.backend.tessera.config.LoggerConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conexões SMTP reutilizáveis para o envio de emails.
+ *
+ * JavaMailSender.send abre uma conexão (e faz o handshake TLS) por chamada. Aqui cada conexão autenticada
+ * fica aberta e envia várias mensagens; ela é descartada após app.mail.pool.max-messages envios, após
+ * qualquer erro ou quando fica ociosa por app.mail.pool.idle-timeout (servidores SMTP costumam encerrar
+ * conexões ociosas). No máximo app.mail.pool.size conexões existem ao mesmo tempo.
+ */
+@Component
+public class SmtpTransportPool {
+    private static final Logger logger = LoggerConfig.getLogger(SmtpTransportPool.class);
+
+    @Autowired
+    private JavaMailSender mailSender;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.mail.pool.size:4}")
+    private int size;
+
+    @Value("${app.mail.pool.max-messages:100}")
+    private int maxMessagesPerConnection;
+
+    @Value("${app.mail.pool.idle-timeout:60000}")
+    private long idleTimeoutMs;
+
+    // Conexão ociosa há mais que isso é verificada (NOOP) antes de ser reutilizada
+    @Value("${app.mail.pool.validate-after:5000}")
+    private long validateAfterMs;
+
+    @Value("${app.mail.pool.borrow-timeout:30000}")
+    private long borrowTimeoutMs;
+
+    private BlockingQueue<PooledTransport> idle;
+    private Semaphore permits;
+    private Counter openedCounter;
+
+    @PostConstruct
+    public void init() {
+        this.idle = new ArrayBlockingQueue<>(size);
+        this.permits = new Semaphore(size);
+        this.openedCounter = Counter.builder("tessera.mail.transport.opened")
+                .description("Conexões SMTP abertas pelo pool")
+                .register(meterRegistry);
+        Gauge.builder("tessera.mail.transport.idle", this, pool -> pool.idle.size())
+                .description("Conexões SMTP abertas e ociosas no pool")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Envia a mensagem por uma conexão do pool; a conexão é descartada se o envio falhar
+     */
+    public void send(MimeMessage message) throws MessagingException {
+        if (!(mailSender instanceof JavaMailSenderImpl)) {
+            // Sem acesso à sessão SMTP (ex.: mocks), delega ao JavaMailSender
+            mailSender.send(message);
+            return;
+        }
+        if (message.getSentDate() == null) {
+            message.setSentDate(new Date());
+        }
+        message.saveChanges();
+
+        PooledTransport transport = borrow();
+        boolean healthy = false;
+        try {
+            transport.transport.sendMessage(message, message.getAllRecipients());
+            transport.sent++;
+            healthy = true;
+        } finally {
+            release(transport, healthy);
+        }
+    }
+
+    /**
+     * Cria uma mensagem na sessão do JavaMailSender configurado
+     */
+    public MimeMessage createMimeMessage() {
+        return mailSender.createMimeMessage();
+    }
+
+    private PooledTransport borrow() throws MessagingException {
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new MessagingException("Tempo esgotado aguardando uma conexão SMTP livre");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MessagingException("Interrompido aguardando uma conexão SMTP", e);
+        }
+
+        try {
+            PooledTransport pooled;
+            while ((pooled = idle.poll()) != null) {
+                long idleMs = System.currentTimeMillis() - pooled.lastUsed;
+                if (idleMs < validateAfterMs || pooled.transport.isConnected()) {
+                    return pooled;
+                }
+                close(pooled);
+            }
+            return open();
+        } catch (MessagingException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private PooledTransport open() throws MessagingException {
+        JavaMailSenderImpl sender = (JavaMailSenderImpl) mailSender;
+        Session session = sender.getSession();
+        Transport transport = session.getTransport(sender.getProtocol() != null ? sender.getProtocol() : "smtp");
+        transport.connect(sender.getHost(), sender.getPort(), sender.getUsername(), sender.getPassword());
+        openedCounter.increment();
+        logger.debug("Conexão SMTP aberta com {}:{}", sender.getHost(), sender.getPort());
+        return new PooledTransport(transport);
+    }
+
+    private void release(PooledTransport pooled, boolean healthy) {
+        try {
+            if (healthy && pooled.sent < maxMessagesPerConnection) {
+                pooled.lastUsed = System.currentTimeMillis();
+                if (idle.offer(pooled)) {
+                    return;
+                }
+            }
+            close(pooled);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Fecha as conexões ociosas há mais de idle-timeout
+     */
+    @Scheduled(fixedDelayString = "${app.mail.pool.idle-timeout:60000}")
+    public void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleTimeoutMs;
+        int count = idle.size();
+        for (int i = 0; i < count; i++) {
+            PooledTransport pooled = idle.poll();
+            if (pooled == null) {
+                return;
+            }
+            if (pooled.lastUsed < cutoff || !idle.offer(pooled)) {
+                close(pooled);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        PooledTransport pooled;
+        while ((pooled = idle.poll()) != null) {
+            close(pooled);
+        }
+    }
+
+    private void close(PooledTransport pooled) {
+        try {
+            pooled.transport.close();
+        } catch (MessagingException e) {
+            logger.debug("Erro ao fechar conexão SMTP: {}", e.getMessage());
+        }
+    }
+
+    private static final class PooledTransport {
+        private final Transport transport;
+        private int sent;
+        private volatile long lastUsed = System.currentTimeMillis();
+
+        private PooledTransport(Transport transport) {
+            this.transport = transport;
+        }
+    }
+}
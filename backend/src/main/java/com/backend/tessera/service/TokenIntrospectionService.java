@@ -0,0 +1,183 @@
+package com.backend.tessera.service;
+
+import com.backend.tessera.config.LoggerConfig;
+import com.backend.tessera.dto.TokenIntrospectionResult;
+import com.backend.tessera.dto.TokenIntrospectionResult.State;
+import com.backend.tessera.model.RefreshToken;
+import com.backend.tessera.repository.RefreshTokenRepository;
+import com.backend.tessera.repository.RefreshTokenRepository.RefreshTokenStatusView;
+import com.backend.tessera.security.TokenEpochRegistry;
+import com.backend.tessera.security.VerifiedToken;
+import com.backend.tessera.security.VerifiedTokenCache;
+import io.jsonwebtoken.ExpiredJwtException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Introspecção em lote de access e refresh tokens para serviços internos.
+ *
+ * Access tokens são verificados em paralelo (em faixas contíguas da lista, uma por thread) usando o mesmo
+ * caminho do filtro de autenticação, inclusive o cache de tokens verificados. Refresh tokens são resolvidos
+ * com uma única consulta IN.
+ */
+@Service
+public class TokenIntrospectionService {
+    private static final Logger logger = LoggerConfig.getLogger(TokenIntrospectionService.class);
+
+    @Autowired
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @Autowired
+    private TokenEpochRegistry tokenEpochRegistry;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    // 0 = número de processadores disponíveis
+    @Value("${app.introspection.threads:0}")
+    private int threads;
+
+    // Abaixo deste tamanho a verificação roda na própria thread da requisição
+    @Value("${app.introspection.parallel-threshold:32}")
+    private int parallelThreshold;
+
+    private ExecutorService executor;
+    private int poolSize;
+
+    @PostConstruct
+    public void init() {
+        this.poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(poolSize, runnable -> {
+            Thread thread = new Thread(runnable, "token-introspection-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Verifica assinatura, expiração e revogação de cada access token
+     */
+    public List<TokenIntrospectionResult> introspectAccessTokens(List<String> tokens) {
+        TokenIntrospectionResult[] results = new TokenIntrospectionResult[tokens.size()];
+        if (tokens.size() < parallelThreshold || poolSize == 1) {
+            introspectRange(tokens, results, 0, tokens.size());
+            return Arrays.asList(results);
+        }
+
+        int chunkSize = (tokens.size() + poolSize - 1) / poolSize;
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int start = 0; start < tokens.size(); start += chunkSize) {
+            int from = start;
+            int to = Math.min(tokens.size(), start + chunkSize);
+            futures.add(CompletableFuture.runAsync(() -> introspectRange(tokens, results, from, to), executor));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Consulta o estado de todos os refresh tokens com uma única query
+     */
+    @Transactional(readOnly = true)
+    public List<TokenIntrospectionResult> introspectRefreshTokens(List<String> tokens) {
+        // Busca pelo hash; a chave do mapa é o hash em Base64, já que byte[] não serve como chave
+        Map<String, byte[]> hashesByKey = new HashMap<>();
+        String[] keys = new String[tokens.size()];
+        for (int i = 0; i < tokens.size(); i++) {
+            String token = tokens.get(i);
+            if (token != null && !token.isBlank()) {
+                byte[] hash = RefreshToken.hashToken(token);
+                keys[i] = Base64.getEncoder().encodeToString(hash);
+                hashesByKey.put(keys[i], hash);
+            }
+        }
+        Map<String, RefreshTokenStatusView> found = hashesByKey.isEmpty()
+                ? Map.of()
+                : refreshTokenRepository.findStatusByTokenHashIn(hashesByKey.values()).stream()
+                        .collect(Collectors.toMap(view -> Base64.getEncoder().encodeToString(view.getTokenHash()),
+                                Function.identity()));
+
+        LocalDateTime now = LocalDateTime.now();
+        List<TokenIntrospectionResult> results = new ArrayList<>(tokens.size());
+        for (int i = 0; i < tokens.size(); i++) {
+            RefreshTokenStatusView view = keys[i] != null ? found.get(keys[i]) : null;
+            if (view == null) {
+                results.add(new TokenIntrospectionResult(i, State.INVALID));
+                continue;
+            }
+            // Um token já trocado pelo sucessor não é mais aceito por /refreshtoken
+            boolean revoked = Boolean.TRUE.equals(view.getRevoked()) || view.getConsumedAt() != null
+                    || view.getTokenVersion() < view.getUserTokenVersion();
+            State state = revoked ? State.REVOKED
+                    : now.isAfter(view.getExpiryDate()) ? State.EXPIRED
+                    : State.ACTIVE;
+            TokenIntrospectionResult result = new TokenIntrospectionResult(i, state);
+            result.setUserId(view.getUserId());
+            result.setUsername(view.getUsername());
+            result.setExpiresAt(view.getExpiryDate().atZone(ZoneId.systemDefault()).toInstant());
+            results.add(result);
+        }
+        logger.debug("Introspecção de {} refresh tokens ({} encontrados)", tokens.size(), found.size());
+        return results;
+    }
+
+    private void introspectRange(List<String> tokens, TokenIntrospectionResult[] results, int from, int to) {
+        for (int i = from; i < to; i++) {
+            results[i] = introspectAccessToken(i, tokens.get(i));
+        }
+    }
+
+    private TokenIntrospectionResult introspectAccessToken(int index, String token) {
+        if (token == null || token.isBlank()) {
+            return new TokenIntrospectionResult(index, State.INVALID);
+        }
+        try {
+            VerifiedToken verified = verifiedTokenCache.verify(token);
+            State state = tokenEpochRegistry.isRevoked(verified.getUserId(), verified.getTokenVersion())
+                    ? State.REVOKED
+                    : State.ACTIVE;
+            TokenIntrospectionResult result = new TokenIntrospectionResult(index, state);
+            result.setUsername(verified.getUsername());
+            result.setUserId(verified.getUserId());
+            result.setAccountStatus(verified.getStatus());
+            result.setRoles(verified.getRoles());
+            result.setIssuedAt(verified.getIssuedAt());
+            result.setExpiresAt(verified.getExpiration());
+            return result;
+        } catch (ExpiredJwtException e) {
+            // A assinatura foi verificada antes da expiração, então os claims são confiáveis
+            TokenIntrospectionResult result = new TokenIntrospectionResult(index, State.EXPIRED);
+            result.setUsername(e.getClaims().getSubject());
+            result.setExpiresAt(e.getClaims().getExpiration() != null ? e.getClaims().getExpiration().toInstant() : null);
+            return result;
+        } catch (Exception e) {
+            return new TokenIntrospectionResult(index, State.INVALID);
+        }
+    }
+}
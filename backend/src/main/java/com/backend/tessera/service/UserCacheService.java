@@ -0,0 +1,228 @@
+package com.backend.tessera.service;
+
+import com.backend.tessera.config.LoggerConfig;
+import com.backend.tessera.model.User;
+import com.backend.tessera.repository.UserRepository;
+import com.backend.tessera.repository.UserTombstoneRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Cache em memória (Caffeine) de usuários por username, com TTL e tamanho máximo. As chaves são o username
+ * em minúsculas, como o banco (collation case-insensitive) compara.
+ *
+ * Usernames inexistentes ficam em um cache negativo de vida curta, para que tentativas repetidas contra
+ * contas que não existem (ex.: credential stuffing) não consultem o banco a cada requisição.
+ *
+ * Leituras feitas dentro de uma transação só entram no cache após o commit, para que dados não
+ * confirmados nunca sejam publicados. Toda escrita que altera um usuário deve chamar evict(),
+ * que remove a entrada imediatamente e novamente após o commit da transação corrente.
+ *
+ * Cada evict() incrementa a geração da chave (contadores por faixa de hash). Uma leitura guarda a geração
+ * antes de consultar o banco e só publica o resultado, de forma atômica com a remoção, se a geração não
+ * mudou; assim um leitor que carregou a linha antes de uma alteração não recoloca o estado antigo no cache
+ * depois da invalidação do escritor.
+ *
+ * evict() só alcança o cache desta instância. Para que uma senha trocada, uma conta desativada/rejeitada ou um
+ * usuário removido em outra instância não continue valendo aqui até o TTL, a cada app.cache.users.sync-interval
+ * são lidas as contas alteradas (User.updatedAt) e removidas (UserTombstone) desde a leitura anterior, e elas
+ * saem do cache. A janela de inconsistência entre instâncias é, portanto, o sync-interval, não o TTL. A leitura
+ * recua app.cache.users.sync-lookback para cobrir diferença de relógio entre instâncias e transações que
+ * gravaram updatedAt antes de confirmar; remover de novo uma conta já removida não tem efeito.
+ */
+@Service
+public class UserCacheService {
+    private static final Logger logger = LoggerConfig.getLogger(UserCacheService.class);
+
+    private static final String CACHE_NAME = "users";
+    private static final String MISSING_CACHE_NAME = "usersMissing";
+    private static final int GENERATION_STRIPES = 1024;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired(required = false)
+    private UserTombstoneRepository userTombstoneRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.cache.users.max-size:10000}")
+    private long maxSize;
+
+    @Value("${app.cache.users.ttl:300000}")
+    private long ttlMs;
+
+    @Value("${app.cache.users.negative-max-size:100000}")
+    private long negativeMaxSize;
+
+    @Value("${app.cache.users.negative-ttl:30000}")
+    private long negativeTtlMs;
+
+    @Value("${app.cache.users.sync-lookback:60000}")
+    private long syncLookbackMs;
+
+    private Cache<String, User> usersByUsername;
+    private Cache<String, Boolean> missingUsernames;
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+    private volatile LocalDateTime lastSyncAt = LocalDateTime.now();
+
+    @PostConstruct
+    public void init() {
+        this.usersByUsername = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, usersByUsername, CACHE_NAME);
+        Gauge.builder("cache.hit.ratio", usersByUsername, cache -> cache.stats().hitRate())
+                .tag("cache", CACHE_NAME)
+                .description("Proporção de leituras atendidas pelo cache")
+                .register(meterRegistry);
+        this.missingUsernames = Caffeine.newBuilder()
+                .maximumSize(negativeMaxSize)
+                .expireAfterWrite(Duration.ofMillis(negativeTtlMs))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, missingUsernames, MISSING_CACHE_NAME);
+        logger.debug("Cache de usuários inicializado (tamanho máximo: {}, TTL: {} ms, TTL negativo: {} ms)",
+                maxSize, ttlMs, negativeTtlMs);
+    }
+
+    /**
+     * Busca o usuário pelo username, consultando o banco apenas em caso de miss
+     */
+    public Optional<User> findByUsername(String username) {
+        if (username == null) {
+            return Optional.empty();
+        }
+        String key = key(username);
+        User cached = usersByUsername.getIfPresent(key);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        if (missingUsernames.getIfPresent(key) != null) {
+            return Optional.empty();
+        }
+
+        int stripe = stripe(key);
+        long generation = generations.get(stripe);
+        Optional<User> userOpt = userRepository.findByUsername(username);
+        if (userOpt.isPresent()) {
+            User user = userOpt.get();
+            afterCommit(() -> publish(usersByUsername, key, user, stripe, generation));
+        } else {
+            afterCommit(() -> publish(missingUsernames, key, Boolean.TRUE, stripe, generation));
+        }
+        return userOpt;
+    }
+
+    /**
+     * Remove o usuário do cache. Deve ser chamado por toda operação que altera a conta,
+     * inclusive o registro de um novo usuário (que o retira do cache negativo).
+     */
+    public void evict(String username) {
+        if (username == null) {
+            return;
+        }
+        String key = key(username);
+        int stripe = stripe(key);
+        Runnable eviction = () -> {
+            invalidate(usersByUsername, key, stripe);
+            invalidate(missingUsernames, key, stripe);
+        };
+        eviction.run();
+        if (inTransaction()) {
+            // Segunda remoção evita que uma leitura concorrente republique o estado anterior ao commit
+            afterCommit(eviction);
+        }
+        logger.debug("Usuário removido do cache: {}", username);
+    }
+
+    /**
+     * Remove do cache as contas alteradas ou removidas em qualquer instância desde a leitura anterior
+     */
+    @Scheduled(initialDelayString = "${app.cache.users.sync-interval:5000}",
+            fixedDelayString = "${app.cache.users.sync-interval:5000}")
+    public void evictChangedElsewhere() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        LocalDateTime since = lastSyncAt.minusNanos(syncLookbackMs * 1_000_000L);
+        List<String> changed = new ArrayList<>(userRepository.findUsernamesUpdatedAfter(since));
+        if (userTombstoneRepository != null) {
+            changed.addAll(userTombstoneRepository.findUsernamesDeletedAfter(since));
+        }
+        for (String username : changed) {
+            String key = key(username);
+            int stripe = stripe(key);
+            invalidate(usersByUsername, key, stripe);
+            invalidate(missingUsernames, key, stripe);
+        }
+        lastSyncAt = startedAt;
+        if (!changed.isEmpty()) {
+            logger.debug("{} usuários alterados em outras instâncias removidos do cache", changed.size());
+        }
+    }
+
+    /**
+     * Publica o valor somente se nenhum evict() da chave ocorreu desde a leitura no banco. A verificação roda
+     * dentro do compute da chave, que exclui o compute de invalidate()
+     */
+    private <V> void publish(Cache<String, V> cache, String key, V value, int stripe, long generation) {
+        cache.asMap().compute(key, (k, current) -> generations.get(stripe) == generation ? value : current);
+    }
+
+    private <V> void invalidate(Cache<String, V> cache, String key, int stripe) {
+        cache.asMap().compute(key, (k, current) -> {
+            generations.incrementAndGet(stripe);
+            return null;
+        });
+    }
+
+    private static int stripe(String key) {
+        return (key.hashCode() & Integer.MAX_VALUE) % GENERATION_STRIPES;
+    }
+
+    private static String key(String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Executa a ação imediatamente ou, se houver transação ativa, somente após o commit
+     */
+    private static void afterCommit(Runnable action) {
+        if (inTransaction()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static boolean inTransaction() {
+        return TransactionSynchronizationManager.isSynchronizationActive()
+                && TransactionSynchronizationManager.isActualTransactionActive();
+    }
+}
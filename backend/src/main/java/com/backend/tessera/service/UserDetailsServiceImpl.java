@@ -3,7 +3,6 @@ package com.backend.tessera.service;
 import com.backend.tessera.config.LoggerConfig;
 import com.backend.tessera.model.AccountStatus;
 import com.backend.tessera.model.User;
-import com.backend.tessera.repository.UserRepository;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.DisabledException;
@@ -18,13 +17,13 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     private static final Logger logger = LoggerConfig.getLogger(UserDetailsServiceImpl.class);
 
     @Autowired
-    private UserRepository userRepository;
+    private UserCacheService userCacheService;
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         logger.debug("Carregando detalhes do usuário: {}", username);
         
-        User user = userRepository.findByUsername(username)
+        User user = userCacheService.findByUsername(username)
                 .orElseThrow(() -> {
                     logger.warn("Usuário não encontrado: {}", username);
                     return new UsernameNotFoundException("Usuário não encontrado: " + username);
@@ -5,8 +5,11 @@ import com.backend.tessera.exception.ResourceNotFoundException;
 import com.backend.tessera.model.AccountStatus;
 import com.backend.tessera.model.Role;
 import com.backend.tessera.model.User;
+import com.backend.tessera.model.UserTombstone;
 import com.backend.tessera.repository.UserRepository;
+import com.backend.tessera.repository.UserTombstoneRepository;
 import com.backend.tessera.repository.VerificationTokenRepository;
+import com.backend.tessera.security.TokenEpochRegistry;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -28,6 +31,15 @@ public class UserService {
     @Autowired
     private VerificationTokenRepository verificationTokenRepository;
 
+    @Autowired
+    private UserTombstoneRepository userTombstoneRepository;
+
+    @Autowired
+    private TokenEpochRegistry tokenEpochRegistry;
+
+    @Autowired
+    private UserCacheService userCacheService;
+
     /**
      * Encontra todos os usuários pendentes de aprovação (paginados)
      */
@@ -82,6 +94,10 @@ public class UserService {
         }
 
         User savedUser = userRepository.save(user);
+        if (!approved) {
+            revokeAllTokens(userId);
+        }
+        userCacheService.evict(savedUser.getUsername());
         logger.info("Status de aprovação atualizado para usuário ID: {}, novo status: {}", userId, savedUser.getStatus());
         return savedUser;
     }
@@ -125,6 +141,10 @@ public class UserService {
         }
 
         User savedUser = userRepository.save(user);
+        if (!enabled) {
+            revokeAllTokens(userId);
+        }
+        userCacheService.evict(savedUser.getUsername());
         logger.info("Status atualizado para usuário ID: {}, novo status: {}", userId, savedUser.getStatus());
         return savedUser;
     }
@@ -135,17 +155,34 @@ public class UserService {
     @Transactional
     public void deleteUser(Long userId) {
         logger.debug("Tentando deletar usuário ID: {}", userId);
-        if (!userRepository.existsById(userId)) {
-            logger.warn("Tentativa de deletar usuário inexistente, ID: {}", userId);
-            throw new ResourceNotFoundException("Usuário não encontrado com ID: " + userId);
-        }
+        String username = userRepository.findById(userId)
+                .map(User::getUsername)
+                .orElseThrow(() -> {
+                    logger.warn("Tentativa de deletar usuário inexistente, ID: {}", userId);
+                    return new ResourceNotFoundException("Usuário não encontrado com ID: " + userId);
+                });
 
         // Deletar todos os tokens associados ao usuário
         verificationTokenRepository.deleteByUserId(userId);
         logger.debug("Tokens de verificação deletados para o usuário ID: {}", userId);
 
-        // Deletar o usuário
+        // Deletar o usuário e invalidar os access tokens já emitidos, nesta e nas demais instâncias
         userRepository.deleteById(userId);
+        userTombstoneRepository.save(new UserTombstone(userId, username, LocalDateTime.now()));
+        tokenEpochRegistry.userDeleted(userId);
+        userCacheService.evict(username);
         logger.info("Usuário ID: {} deletado com sucesso", userId);
     }
+
+    /**
+     * Invalida todos os access e refresh tokens do usuário incrementando User.tokenVersion (um único UPDATE)
+     */
+    @Transactional
+    public void revokeAllTokens(Long userId) {
+        if (userRepository.incrementTokenVersion(userId, LocalDateTime.now()) == 0) {
+            throw new ResourceNotFoundException("Usuário não encontrado com ID: " + userId);
+        }
+        long newVersion = userRepository.findTokenVersionById(userId).orElseThrow();
+        tokenEpochRegistry.versionBumped(userId, newVersion);
+    }
 }
\ No newline at end of file
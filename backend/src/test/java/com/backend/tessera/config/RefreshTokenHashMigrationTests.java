@@ -0,0 +1,90 @@
+package com.backend.tessera.config;
+
+import com.backend.tessera.model.AccountStatus;
+import com.backend.tessera.model.RefreshToken;
+import com.backend.tessera.model.Role;
+import com.backend.tessera.model.User;
+import com.backend.tessera.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class RefreshTokenHashMigrationTests {
+
+    @Autowired
+    private RefreshTokenHashMigration migration;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User("Legacy User", "legacyuser", "legacyuser@example.com", "hash", "Test Inst", Role.ALUNO);
+        user.setStatus(AccountStatus.ATIVO);
+        userRepository.save(user);
+        // Schema da versão anterior: token em claro, obrigatório
+        jdbcTemplate.execute("ALTER TABLE refresh_tokens ADD COLUMN token VARCHAR(255)");
+        insertLegacyToken("token-legado-1");
+        jdbcTemplate.execute("ALTER TABLE refresh_tokens ALTER COLUMN token SET NOT NULL");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM refresh_tokens WHERE user_id = ?", user.getId());
+        jdbcTemplate.execute("ALTER TABLE refresh_tokens DROP COLUMN IF EXISTS token");
+        ReflectionTestUtils.setField(migration, "dropLegacyColumn", false);
+        migration.migrate();
+        userRepository.delete(user);
+    }
+
+    @Test
+    void testLegacyColumnIsKeptNullableAndBackfilled() {
+        migration.migrate();
+
+        assertArrayEquals(RefreshToken.hashToken("token-legado-1"), hashOf("token-legado-1"));
+        assertEquals("YES", jdbcTemplate.queryForObject("SELECT IS_NULLABLE FROM INFORMATION_SCHEMA.COLUMNS " +
+                "WHERE LOWER(TABLE_NAME) = 'refresh_tokens' AND LOWER(COLUMN_NAME) = 'token'", String.class));
+
+        // Token emitido por uma instância da versão anterior durante o deploy
+        insertLegacyToken("token-legado-2");
+        migration.backfillPending();
+        assertArrayEquals(RefreshToken.hashToken("token-legado-2"), hashOf("token-legado-2"));
+    }
+
+    @Test
+    void testLegacyColumnIsDroppedOnlyWhenEnabled() {
+        ReflectionTestUtils.setField(migration, "dropLegacyColumn", true);
+        migration.migrate();
+
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM INFORMATION_SCHEMA.COLUMNS " +
+                "WHERE LOWER(TABLE_NAME) = 'refresh_tokens' AND LOWER(COLUMN_NAME) = 'token'", Integer.class));
+    }
+
+    private void insertLegacyToken(String token) {
+        jdbcTemplate.update("INSERT INTO refresh_tokens (token, user_id, expiry_date, revoked, token_version, " +
+                        "user_agent, ip_address) VALUES (?, ?, ?, false, 0, 'Teste', '127.0.0.1')",
+                token, user.getId(), Timestamp.valueOf(LocalDateTime.now().plusDays(1)));
+    }
+
+    private byte[] hashOf(String token) {
+        return jdbcTemplate.queryForObject("SELECT token_hash FROM refresh_tokens WHERE token = ?", byte[].class, token);
+    }
+}
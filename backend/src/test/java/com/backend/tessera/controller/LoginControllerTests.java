@@ -5,18 +5,27 @@ import com.backend.tessera.model.AccountStatus;
 import com.backend.tessera.model.Role;
 import com.backend.tessera.model.User;
 import com.backend.tessera.repository.UserRepository;
+import com.backend.tessera.security.PasswordHashingExecutor;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -37,6 +46,9 @@ public class LoginControllerTests {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private PasswordHashingExecutor passwordHashingExecutor;
+
     // Presume-se que DataInitializer (versão idempotente) garante que estes usuários existem
     // admin/admin123 (ADMIN, ATIVO)
     // professor1/senha123 (PROFESSOR, ATIVO)
@@ -177,4 +189,42 @@ public class LoginControllerTests {
                 .andExpect(status().isNotFound())
                 .andExpect(jsonPath("$.message").value("Usuário não encontrado"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testLogin_HashingQueueFull_Returns503WithRetryAfter() throws Exception {
+        // Ocupa todas as threads e a fila do executor de hashing até a próxima tarefa ser recusada
+        ThreadPoolExecutor executor = (ThreadPoolExecutor) ReflectionTestUtils.getField(passwordHashingExecutor, "executor");
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            while (true) {
+                try {
+                    executor.execute(() -> {
+                        try {
+                            release.await(10, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    break;
+                }
+            }
+
+            for (String username : new String[]{"aluno1", "usuarioinexistente"}) {
+                AuthRequest authRequest = new AuthRequest();
+                authRequest.setUsername(username);
+                authRequest.setPassword("senha123");
+
+                // Usuário inexistente também passa pela fila (matchesDummy), com a mesma resposta
+                mockMvc.perform(post("/api/auth/login")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .header("User-Agent", "Mozilla/5.0 Test")
+                                .content(objectMapper.writeValueAsString(authRequest)))
+                        .andExpect(status().isServiceUnavailable())
+                        .andExpect(header().string(HttpHeaders.RETRY_AFTER, "2"));
+            }
+        } finally {
+            release.countDown();
+        }
+    }
+}
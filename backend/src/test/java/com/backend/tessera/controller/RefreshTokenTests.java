@@ -3,10 +3,16 @@ package com.backend.tessera.controller;
 import com.backend.tessera.dto.AuthRequest;
 import com.backend.tessera.dto.RefreshTokenRequest;
 import com.backend.tessera.model.AccountStatus;
+import com.backend.tessera.model.RefreshToken;
 import com.backend.tessera.model.Role;
 import com.backend.tessera.model.User;
+import com.backend.tessera.repository.RefreshTokenRepository;
 import com.backend.tessera.repository.UserRepository;
+import com.backend.tessera.security.TokenEpochRegistry;
+import com.backend.tessera.service.RefreshTokenService;
+import com.backend.tessera.service.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -17,9 +23,16 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -42,10 +55,27 @@ public class RefreshTokenTests {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TokenEpochRegistry tokenEpochRegistry;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private User testUser;
+
     @BeforeEach
     void setUp() {
         // Criar um usuário ativo para testes de login e refresh token
-        User testUser = new User();
+        testUser = new User();
         testUser.setNome("Test User");
         testUser.setUsername("testuser");
         testUser.setEmail("testuser@example.com");
@@ -85,7 +115,91 @@ public class RefreshTokenTests {
                 .content(objectMapper.writeValueAsString(refreshRequest)))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.accessToken").isString())
-                .andExpect(jsonPath("$.refreshToken").value(refreshToken));
+                .andExpect(jsonPath("$.refreshToken").isString())
+                .andExpect(jsonPath("$.refreshToken").value(not(refreshToken)));
+    }
+
+    @Test
+    void testConcurrentRefreshWithinGraceReturnsSameSuccessor() throws Exception {
+        String refreshToken = loginAndGetRefreshToken();
+
+        String successor = refresh(refreshToken).andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String successorToken = objectMapper.readTree(successor).get("refreshToken").asText();
+
+        // Segunda requisição com o mesmo token (ex.: outra aba) dentro da janela de carência
+        refresh(refreshToken)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.refreshToken").value(successorToken));
+    }
+
+    @Test
+    void testReuseOfConsumedTokenRevokesFamily() throws Exception {
+        String refreshToken = loginAndGetRefreshToken();
+        String successor = refresh(refreshToken).andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String successorToken = objectMapper.readTree(successor).get("refreshToken").asText();
+
+        // Simular o reuso depois da janela de carência
+        RefreshToken consumed = refreshTokenRepository.findByTokenHash(RefreshToken.hashToken(refreshToken)).orElseThrow();
+        consumed.setConsumedAt(LocalDateTime.now().minusMinutes(5));
+        refreshTokenRepository.saveAndFlush(consumed);
+
+        refresh(refreshToken).andExpect(status().isInternalServerError());
+
+        // O sucessor pertence à mesma família e também foi revogado
+        refresh(successorToken).andExpect(status().isInternalServerError());
+    }
+
+    @Test
+    void testTokenVersionBumpRevokesRefreshToken() throws Exception {
+        String refreshToken = loginAndGetRefreshToken();
+
+        userService.revokeAllTokens(testUser.getId());
+
+        refresh(refreshToken).andExpect(status().isInternalServerError());
+    }
+
+    @Test
+    void testSaveOfStaleUserDoesNotUndoTokenVersionBump() {
+        // testUser foi carregado antes do incremento; um save() dele não pode gravar a versão antiga
+        userService.revokeAllTokens(testUser.getId());
+        testUser.setInstitution("Outra Inst");
+        userRepository.saveAndFlush(testUser);
+        entityManager.clear();
+
+        assertEquals(1L, userRepository.findTokenVersionById(testUser.getId()).orElseThrow());
+    }
+
+    @Test
+    void testDeletedUserIsRevokedOnOtherInstancesAfterResync() {
+        userService.deleteUser(testUser.getId());
+
+        // A transação do teste não confirma, então só o registro compartilhado (UserTombstone) informa a remoção
+        assertFalse(tokenEpochRegistry.isRevoked(testUser.getId(), 0));
+        tokenEpochRegistry.resync();
+        assertTrue(tokenEpochRegistry.isRevoked(testUser.getId(), 0));
+    }
+
+    private String loginAndGetRefreshToken() throws Exception {
+        AuthRequest authRequest = new AuthRequest();
+        authRequest.setUsername("testuser");
+        authRequest.setPassword("password");
+
+        MvcResult loginResult = mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("User-Agent", "Mozilla/5.0 Test")
+                .content(objectMapper.writeValueAsString(authRequest)))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readTree(loginResult.getResponse().getContentAsString()).get("refreshToken").asText();
+    }
+
+    private ResultActions refresh(String refreshToken) throws Exception {
+        return mockMvc.perform(post("/api/auth/refreshtoken")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("User-Agent", "Mozilla/5.0 Test")
+                .content(objectMapper.writeValueAsString(new RefreshTokenRequest(refreshToken))));
     }
 
     @Test
@@ -138,4 +252,31 @@ public class RefreshTokenTests {
                 .content(objectMapper.writeValueAsString(refreshRequest)))
                 .andExpect(status().isInternalServerError());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testCleanupPurgesExpiredAndOldRevokedTokens() {
+        RefreshToken active = refreshTokenRepository.save(
+                RefreshToken.createToken(testUser, 60000, "Test", "127.0.0.1"));
+
+        RefreshToken expired = RefreshToken.createToken(testUser, 60000, "Test", "127.0.0.1");
+        expired.setExpiryDate(LocalDateTime.now().minusMinutes(1));
+        expired = refreshTokenRepository.save(expired);
+
+        RefreshToken recentlyRevoked = RefreshToken.createToken(testUser, 60000, "Test", "127.0.0.1");
+        recentlyRevoked.setRevoked(true);
+        recentlyRevoked.setRevokedAt(LocalDateTime.now());
+        recentlyRevoked = refreshTokenRepository.save(recentlyRevoked);
+
+        RefreshToken oldRevoked = RefreshToken.createToken(testUser, 60000, "Test", "127.0.0.1");
+        oldRevoked.setRevoked(true);
+        oldRevoked.setRevokedAt(LocalDateTime.now().minusDays(2));
+        oldRevoked = refreshTokenRepository.save(oldRevoked);
+
+        refreshTokenService.cleanupExpiredTokens();
+
+        assertTrue(refreshTokenRepository.existsById(active.getId()));
+        assertTrue(refreshTokenRepository.existsById(recentlyRevoked.getId()), "Revogado dentro da carência deve ser mantido");
+        assertFalse(refreshTokenRepository.existsById(expired.getId()));
+        assertFalse(refreshTokenRepository.existsById(oldRevoked.getId()));
+    }
+}
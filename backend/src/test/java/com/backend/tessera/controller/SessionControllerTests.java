@@ -0,0 +1,128 @@
+package com.backend.tessera.controller;
+
+import com.backend.tessera.dto.AuthRequest;
+import com.backend.tessera.dto.RefreshTokenRequest;
+import com.backend.tessera.model.AccountStatus;
+import com.backend.tessera.model.Role;
+import com.backend.tessera.model.User;
+import com.backend.tessera.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Transactional
+@TestPropertySource(properties = "app.session.max-per-user=2")
+public class SessionControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @BeforeEach
+    void setUp() {
+        User testUser = new User();
+        testUser.setNome("Session User");
+        testUser.setUsername("sessionuser");
+        testUser.setEmail("sessionuser@example.com");
+        testUser.setPassword(passwordEncoder.encode("password"));
+        testUser.setInstitution("Test Inst");
+        testUser.setRole(Role.ALUNO);
+        testUser.setStatus(AccountStatus.ATIVO);
+        userRepository.save(testUser);
+    }
+
+    @Test
+    void testOldestSessionsAreEvictedBeyondLimit() throws Exception {
+        JsonNode first = login("Navegador 1");
+        login("Navegador 2");
+        JsonNode third = login("Navegador 3");
+
+        mockMvc.perform(get("/api/sessions")
+                .header("Authorization", "Bearer " + third.get("token").asText()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[*].userAgent").value(not(
+                        hasItem("Navegador 1"))));
+
+        // A sessão mais antiga foi revogada e não pode mais ser renovada
+        mockMvc.perform(post("/api/auth/refreshtoken")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(
+                        new RefreshTokenRequest(first.get("refreshToken").asText()))))
+                .andExpect(status().isInternalServerError());
+    }
+
+    @Test
+    void testRevokeOtherSessionsKeepsCurrent() throws Exception {
+        login("Navegador 1");
+        JsonNode current = login("Navegador 2");
+        String accessToken = current.get("token").asText();
+
+        mockMvc.perform(post("/api/sessions/revoke-others")
+                .header("Authorization", "Bearer " + accessToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(
+                        new RefreshTokenRequest(current.get("refreshToken").asText()))))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/sessions")
+                .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].userAgent").value("Navegador 2"));
+    }
+
+    @Test
+    void testRevokeOtherSessionsRejectsForeignToken() throws Exception {
+        JsonNode current = login("Navegador 1");
+
+        mockMvc.perform(post("/api/sessions/revoke-others")
+                .header("Authorization", "Bearer " + current.get("token").asText())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new RefreshTokenRequest("token-de-outra-sessao"))))
+                .andExpect(status().isBadRequest());
+    }
+
+    private JsonNode login(String userAgent) throws Exception {
+        AuthRequest authRequest = new AuthRequest();
+        authRequest.setUsername("sessionuser");
+        authRequest.setPassword("password");
+
+        String body = mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("User-Agent", userAgent)
+                .content(objectMapper.writeValueAsString(authRequest)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+}
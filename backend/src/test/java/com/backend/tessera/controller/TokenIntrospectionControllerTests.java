@@ -0,0 +1,144 @@
+package com.backend.tessera.controller;
+
+import com.backend.tessera.dto.AuthRequest;
+import com.backend.tessera.dto.RefreshTokenRequest;
+import com.backend.tessera.dto.TokenIntrospectionRequest;
+import com.backend.tessera.model.AccountStatus;
+import com.backend.tessera.model.Role;
+import com.backend.tessera.model.User;
+import com.backend.tessera.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Transactional
+@TestPropertySource(properties = {"app.internal.api-key=chave-interna-teste", "app.introspection.max-batch=5"})
+public class TokenIntrospectionControllerTests {
+
+    private static final String INTROSPECT_URL = "/api/internal/tokens/introspect";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @BeforeEach
+    void setUp() {
+        User testUser = new User();
+        testUser.setNome("Introspection User");
+        testUser.setUsername("introspectuser");
+        testUser.setEmail("introspectuser@example.com");
+        testUser.setPassword(passwordEncoder.encode("password"));
+        testUser.setInstitution("Test Inst");
+        testUser.setRole(Role.ALUNO);
+        testUser.setStatus(AccountStatus.ATIVO);
+        userRepository.save(testUser);
+    }
+
+    @Test
+    void testIntrospectBatch() throws Exception {
+        JsonNode login = login();
+        TokenIntrospectionRequest request = new TokenIntrospectionRequest(
+                List.of(login.get("token").asText(), "token-invalido"),
+                List.of("refresh-inexistente", login.get("refreshToken").asText()));
+
+        mockMvc.perform(post(INTROSPECT_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(TokenIntrospectionController.API_KEY_HEADER, "chave-interna-teste")
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accessTokens[0].state").value("ACTIVE"))
+                .andExpect(jsonPath("$.accessTokens[0].active").value(true))
+                .andExpect(jsonPath("$.accessTokens[0].username").value("introspectuser"))
+                .andExpect(jsonPath("$.accessTokens[0].roles[0]").value("ROLE_ALUNO"))
+                .andExpect(jsonPath("$.accessTokens[1].state").value("INVALID"))
+                .andExpect(jsonPath("$.refreshTokens[0].index").value(0))
+                .andExpect(jsonPath("$.refreshTokens[0].state").value("INVALID"))
+                .andExpect(jsonPath("$.refreshTokens[1].state").value("ACTIVE"))
+                .andExpect(jsonPath("$.refreshTokens[1].username").value("introspectuser"));
+    }
+
+    @Test
+    void testIntrospectReportsRotatedRefreshTokenAsRevoked() throws Exception {
+        String refreshToken = login().get("refreshToken").asText();
+        mockMvc.perform(post("/api/auth/refreshtoken")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("User-Agent", "Mozilla/5.0 Test")
+                .content(objectMapper.writeValueAsString(new RefreshTokenRequest(refreshToken))))
+                .andExpect(status().isOk());
+
+        TokenIntrospectionRequest request = new TokenIntrospectionRequest(List.of(), List.of(refreshToken));
+
+        mockMvc.perform(post(INTROSPECT_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(TokenIntrospectionController.API_KEY_HEADER, "chave-interna-teste")
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.refreshTokens[0].state").value("REVOKED"))
+                .andExpect(jsonPath("$.refreshTokens[0].active").value(false));
+    }
+
+    @Test
+    void testIntrospectRejectsWrongApiKey() throws Exception {
+        TokenIntrospectionRequest request = new TokenIntrospectionRequest(List.of("qualquer"), List.of());
+
+        mockMvc.perform(post(INTROSPECT_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(TokenIntrospectionController.API_KEY_HEADER, "chave-errada")
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void testIntrospectRejectsOversizedBatch() throws Exception {
+        TokenIntrospectionRequest request = new TokenIntrospectionRequest(
+                Collections.nCopies(6, "token"), List.of());
+
+        mockMvc.perform(post(INTROSPECT_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(TokenIntrospectionController.API_KEY_HEADER, "chave-interna-teste")
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+    }
+
+    private JsonNode login() throws Exception {
+        AuthRequest authRequest = new AuthRequest();
+        authRequest.setUsername("introspectuser");
+        authRequest.setPassword("password");
+
+        String body = mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("User-Agent", "Mozilla/5.0 Test")
+                .content(objectMapper.writeValueAsString(authRequest)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+}
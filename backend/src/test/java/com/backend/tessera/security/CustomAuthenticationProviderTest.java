@@ -0,0 +1,168 @@
+package com.backend.tessera.security;
+
+import com.backend.tessera.exception.ServiceOverloadedException;
+import com.backend.tessera.model.Role;
+import com.backend.tessera.model.User;
+import com.backend.tessera.repository.UserRepository;
+import com.backend.tessera.service.PasswordUpgradeService;
+import com.backend.tessera.service.UserCacheService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+class CustomAuthenticationProviderTest {
+
+    private static final String PASSWORD = "senha123";
+
+    private final PasswordEncoder passwordEncoder = new DelegatingPasswordEncoder("bcrypt",
+            Map.of("bcrypt", new BCryptPasswordEncoder(5)));
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private UserRepository userRepository;
+    private UserCacheService userCacheService;
+    private PasswordHashingExecutor hashingExecutor;
+    private PasswordUpgradeService upgradeService;
+    private CustomAuthenticationProvider provider;
+    private User user;
+    private String oldHash;
+
+    @BeforeEach
+    void setUp() {
+        // Hash gravado com custo menor que o atual: o login deve regravá-lo
+        oldHash = "{bcrypt}" + new BCryptPasswordEncoder(4).encode(PASSWORD);
+        user = new User("rehashuser", oldHash, Role.ALUNO);
+        user.setId(1L);
+
+        userRepository = Mockito.mock(UserRepository.class);
+        userCacheService = Mockito.mock(UserCacheService.class);
+        Mockito.when(userCacheService.findByUsername("rehashuser")).thenReturn(Optional.of(user));
+
+        hashingExecutor = new PasswordHashingExecutor();
+        ReflectionTestUtils.setField(hashingExecutor, "passwordEncoder", passwordEncoder);
+        ReflectionTestUtils.setField(hashingExecutor, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(hashingExecutor, "threads", 2);
+        ReflectionTestUtils.setField(hashingExecutor, "queueCapacity", 10);
+        ReflectionTestUtils.setField(hashingExecutor, "timeoutMs", 5000L);
+        ReflectionTestUtils.setField(hashingExecutor, "retryAfterSeconds", 2L);
+        hashingExecutor.init();
+
+        upgradeService = new PasswordUpgradeService();
+        ReflectionTestUtils.setField(upgradeService, "userRepository", userRepository);
+        ReflectionTestUtils.setField(upgradeService, "passwordHashingExecutor", hashingExecutor);
+        ReflectionTestUtils.setField(upgradeService, "userCacheService", userCacheService);
+        ReflectionTestUtils.setField(upgradeService, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(upgradeService, "queueCapacity", 1);
+        upgradeService.init();
+
+        provider = new CustomAuthenticationProvider();
+        ReflectionTestUtils.setField(provider, "userCacheService", userCacheService);
+        ReflectionTestUtils.setField(provider, "passwordHashingExecutor", hashingExecutor);
+        ReflectionTestUtils.setField(provider, "passwordUpgradeService", upgradeService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        upgradeService.shutdown();
+        hashingExecutor.shutdown();
+    }
+
+    @Test
+    void testLoginWithOutdatedHashRewritesItWithCurrentCost() {
+        Mockito.when(userRepository.updatePasswordIfUnchanged(anyLong(), anyString(), anyString())).thenReturn(1);
+
+        provider.authenticate(new UsernamePasswordAuthenticationToken("rehashuser", PASSWORD));
+
+        verify(userRepository, timeout(5000)).updatePasswordIfUnchanged(eq(1L), eq(oldHash), argThat(newHash ->
+                passwordEncoder.matches(PASSWORD, newHash) && !passwordEncoder.upgradeEncoding(newHash)));
+        verify(userCacheService, timeout(5000)).evict("rehashuser");
+    }
+
+    @Test
+    void testUnknownUserPaysTheSameHashingCost() {
+        PasswordHashingExecutor spiedExecutor = Mockito.spy(hashingExecutor);
+        ReflectionTestUtils.setField(provider, "passwordHashingExecutor", spiedExecutor);
+
+        assertThrows(BadCredentialsException.class, () ->
+                provider.authenticate(new UsernamePasswordAuthenticationToken("inexistente", PASSWORD)));
+
+        verify(spiedExecutor).matchesDummy(PASSWORD);
+        assertEquals(1L, meterRegistry.timer("tessera.password.hashing.duration", "operation", "matches").count());
+    }
+
+    @Test
+    void testFullHashingQueueRejectsLoginWithRetryAfter() throws InterruptedException {
+        // A única thread de hashing presa e a fila (capacidade 1) ocupada
+        PasswordHashingExecutor smallExecutor = new PasswordHashingExecutor();
+        ReflectionTestUtils.setField(smallExecutor, "passwordEncoder", passwordEncoder);
+        ReflectionTestUtils.setField(smallExecutor, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(smallExecutor, "threads", 1);
+        ReflectionTestUtils.setField(smallExecutor, "queueCapacity", 1);
+        ReflectionTestUtils.setField(smallExecutor, "timeoutMs", 5000L);
+        ReflectionTestUtils.setField(smallExecutor, "retryAfterSeconds", 2L);
+        smallExecutor.init();
+        ReflectionTestUtils.setField(provider, "passwordHashingExecutor", smallExecutor);
+
+        ThreadPoolExecutor executor = (ThreadPoolExecutor) ReflectionTestUtils.getField(smallExecutor, "executor");
+        CountDownLatch release = new CountDownLatch(1);
+        Runnable blocker = () -> {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        try {
+            executor.execute(blocker);
+            executor.execute(blocker);
+
+            ServiceOverloadedException e = assertThrows(ServiceOverloadedException.class, () ->
+                    provider.authenticate(new UsernamePasswordAuthenticationToken("rehashuser", PASSWORD)));
+            assertEquals(2L, e.getRetryAfterSeconds());
+        } finally {
+            release.countDown();
+            smallExecutor.shutdown();
+        }
+    }
+
+    @Test
+    void testFullUpgradeQueueNeverFailsTheLogin() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        Mockito.when(userRepository.updatePasswordIfUnchanged(anyLong(), anyString(), anyString())).thenAnswer(invocation -> {
+            release.await(10, TimeUnit.SECONDS);
+            return 0;
+        });
+
+        try {
+            // Uma regravação presa na thread, uma na fila (capacidade 1) e as demais descartadas
+            for (int i = 0; i < 4; i++) {
+                assertDoesNotThrow(() -> provider.authenticate(new UsernamePasswordAuthenticationToken("rehashuser", PASSWORD)));
+            }
+            assertEquals(2.0, meterRegistry.counter("tessera.password.upgrade.discarded").count());
+        } finally {
+            release.countDown();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.backend.tessera.security;
+
+import com.backend.tessera.model.JwtSigningKey;
+import com.backend.tessera.repository.JwtSigningKeyRepository;
+import org.mockito.Mockito;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * JwtSigningKeyRepository em memória para montar JwtKeyRing fora do contexto Spring; instâncias que recebem o
+ * mesmo repositório se comportam como nós que compartilham a tabela jwt_signing_keys
+ */
+public final class InMemoryJwtSigningKeys {
+
+    private InMemoryJwtSigningKeys() {
+    }
+
+    public static JwtSigningKeyRepository repository() {
+        List<JwtSigningKey> rows = new ArrayList<>();
+        JwtSigningKeyRepository repository = Mockito.mock(JwtSigningKeyRepository.class);
+        Mockito.when(repository.findByAlgorithmOrderByGenerationAsc(Mockito.anyString())).thenAnswer(invocation -> {
+            String algorithm = invocation.getArgument(0);
+            synchronized (rows) {
+                return rows.stream()
+                        .filter(row -> row.getAlgorithm().equals(algorithm))
+                        .sorted(Comparator.comparingLong(JwtSigningKey::getGeneration))
+                        .toList();
+            }
+        });
+        Mockito.when(repository.save(Mockito.any(JwtSigningKey.class))).thenAnswer(invocation -> {
+            JwtSigningKey key = invocation.getArgument(0);
+            synchronized (rows) {
+                boolean duplicate = rows.stream().anyMatch(row -> row.getAlgorithm().equals(key.getAlgorithm())
+                        && row.getGeneration() == key.getGeneration());
+                if (duplicate) {
+                    throw new DataIntegrityViolationException("uk_jwt_signing_keys_generation");
+                }
+                rows.add(key);
+            }
+            return key;
+        });
+        Mockito.when(repository.deleteOlderThan(Mockito.anyString(), Mockito.anyLong())).thenAnswer(invocation -> {
+            String algorithm = invocation.getArgument(0);
+            long generation = invocation.getArgument(1);
+            synchronized (rows) {
+                int before = rows.size();
+                rows.removeIf(row -> row.getAlgorithm().equals(algorithm) && row.getGeneration() < generation);
+                return before - rows.size();
+            }
+        });
+        return repository;
+    }
+}
@@ -0,0 +1,210 @@
+package com.backend.tessera.security;
+
+import com.backend.tessera.model.AccountStatus;
+import com.backend.tessera.model.Role;
+import com.backend.tessera.model.User;
+import com.backend.tessera.repository.JwtSigningKeyRepository;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JwtUtilTest {
+
+    private static final String SECRET = "ZThiYmM2NTZiNmQ0YmNhMmI3ZTlmMjkyZDE4MDgyYTBhZjExNGJkZjJiMGY4ZTk4ZjlhZWZmZmFkOWY3ZTYwOA==";
+
+    private JwtKeyRing keyRing;
+    private JwtUtil jwtUtil;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = newJwtUtil(JwtKeyRing.ALGORITHM_HS256);
+
+        user = new User("professorjwt", "hash", Role.PROFESSOR);
+        user.setStatus(AccountStatus.ATIVO);
+    }
+
+    @Test
+    void testVerifyReturnsClaimsFromSingleParse() {
+        String token = jwtUtil.generateToken(user);
+
+        VerifiedToken verified = jwtUtil.verify(token);
+
+        assertEquals("professorjwt", verified.getUsername());
+        assertEquals(List.of("ROLE_PROFESSOR"), verified.getRoles());
+        assertNotNull(verified.getIssuedAt());
+        assertFalse(verified.isExpired(), "O token recém-gerado não deveria estar expirado");
+        assertTrue(jwtUtil.validateToken(verified, user));
+    }
+
+    @Test
+    void testTokenVersionIsEmbeddedAndCheckedByRegistry() {
+        user.setId(42L);
+        user.setTokenVersion(3);
+        VerifiedToken verified = jwtUtil.verify(jwtUtil.generateToken(user));
+        assertEquals(3L, verified.getTokenVersion());
+
+        TokenEpochRegistry registry = new TokenEpochRegistry();
+        assertFalse(registry.isRevoked(42L, verified.getTokenVersion()));
+
+        registry.versionBumped(42L, 4);
+        assertTrue(registry.isRevoked(42L, verified.getTokenVersion()));
+    }
+
+    @Test
+    void testIdentityClaimsBuildStatelessPrincipal() {
+        user.setId(42L);
+
+        VerifiedToken verified = jwtUtil.verify(jwtUtil.generateToken(user));
+        JwtUserPrincipal principal = JwtUserPrincipal.fromToken(verified);
+
+        assertTrue(verified.hasIdentityClaims());
+        assertEquals(42L, principal.getId());
+        assertEquals(AccountStatus.ATIVO, principal.getStatus());
+        assertEquals("ROLE_PROFESSOR", principal.getAuthorities().iterator().next().getAuthority());
+    }
+
+    @Test
+    void testValidateTokenRejectsOtherUser() {
+        VerifiedToken verified = jwtUtil.verify(jwtUtil.generateToken(user));
+        User other = new User("outro", "hash", Role.ALUNO);
+
+        assertFalse(jwtUtil.validateToken(verified, other));
+    }
+
+    @Test
+    void testVerifyRejectsTamperedToken() {
+        String token = jwtUtil.generateToken(user);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertThrows(JwtException.class, () -> jwtUtil.verify(tampered));
+        assertFalse(jwtUtil.validateToken(tampered, user));
+    }
+
+    @Test
+    void testAsymmetricTokensCarryKidPublishedInJwks() {
+        for (String algorithm : List.of(JwtKeyRing.ALGORITHM_ES256, JwtKeyRing.ALGORITHM_EDDSA)) {
+            jwtUtil = newJwtUtil(algorithm);
+            String token = jwtUtil.generateToken(user);
+
+            assertEquals("professorjwt", jwtUtil.verify(token).getUsername());
+            List<?> keys = (List<?>) keyRing.jwks().get("keys");
+            assertEquals(1, keys.size());
+            Map<?, ?> jwk = (Map<?, ?>) keys.get(0);
+            assertEquals(algorithm, jwk.get("alg"));
+            assertEquals(keyRing.activeKey().getKid(), jwk.get("kid"));
+            assertFalse(jwk.containsKey("d"), "O JWKS não pode expor a chave privada");
+        }
+    }
+
+    @Test
+    void testRotationKeepsPreviousKeyForVerification() {
+        jwtUtil = newJwtUtil(JwtKeyRing.ALGORITHM_ES256);
+        String oldToken = jwtUtil.generateToken(user);
+        String oldKid = keyRing.activeKey().getKid();
+        String oldEtag = keyRing.jwksEtag();
+
+        keyRing.rotate();
+
+        assertNotEquals(oldKid, keyRing.activeKey().getKid());
+        assertNotEquals(oldEtag, keyRing.jwksEtag());
+        assertEquals(2, ((List<?>) keyRing.jwks().get("keys")).size());
+        assertTrue(jwtUtil.validateToken(oldToken, user), "Tokens da chave anterior devem continuar válidos");
+        assertTrue(jwtUtil.validateToken(jwtUtil.generateToken(user), user));
+    }
+
+    @Test
+    void testAsymmetricModeAcceptsLegacyHmacTokens() {
+        String legacyToken = Jwts.builder()
+                .subject("professorjwt")
+                .expiration(new Date(System.currentTimeMillis() + 60000L))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)))
+                .compact();
+        jwtUtil = newJwtUtil(JwtKeyRing.ALGORITHM_ES256);
+
+        assertTrue(jwtUtil.validateToken(legacyToken, user));
+    }
+
+    @Test
+    void testHmacModeAcceptsTokensIssuedBeforeKid() {
+        // Tokens emitidos antes do kid existir, assinados com a mesma chave: não podem derrubar as sessões no deploy
+        String legacyToken = Jwts.builder()
+                .subject("professorjwt")
+                .expiration(new Date(System.currentTimeMillis() + 60000L))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)))
+                .compact();
+        jwtUtil = newJwtUtil(JwtKeyRing.ALGORITHM_HS256, InMemoryJwtSigningKeys.repository(), false);
+
+        assertTrue(jwtUtil.validateToken(legacyToken, user));
+    }
+
+    @Test
+    void testAsymmetricModeRejectsLegacyHmacTokensByDefault() {
+        String legacyToken = Jwts.builder()
+                .subject("professorjwt")
+                .expiration(new Date(System.currentTimeMillis() + 60000L))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)))
+                .compact();
+        jwtUtil = newJwtUtil(JwtKeyRing.ALGORITHM_ES256, InMemoryJwtSigningKeys.repository(), false);
+
+        assertFalse(jwtUtil.validateToken(legacyToken, user));
+    }
+
+    @Test
+    void testInstancesSharingKeyStoreAcceptEachOthersTokens() {
+        JwtSigningKeyRepository sharedStore = InMemoryJwtSigningKeys.repository();
+        JwtUtil nodeA = newJwtUtil(JwtKeyRing.ALGORITHM_EDDSA, sharedStore, false);
+        JwtKeyRing keyRingA = keyRing;
+        JwtUtil nodeB = newJwtUtil(JwtKeyRing.ALGORITHM_EDDSA, sharedStore, false);
+
+        assertEquals(keyRingA.activeKey().getKid(), keyRing.activeKey().getKid());
+        assertTrue(nodeB.validateToken(nodeA.generateToken(user), user));
+
+        // A instância A rotaciona; B conhece a chave nova na próxima leitura da tabela
+        keyRingA.rotate();
+        keyRing.refresh();
+        assertTrue(nodeB.validateToken(nodeA.generateToken(user), user));
+
+        // Um restart (nova instância sobre a mesma tabela) continua aceitando os tokens já emitidos
+        String issued = nodeB.generateToken(user);
+        JwtUtil restarted = newJwtUtil(JwtKeyRing.ALGORITHM_EDDSA, sharedStore, false);
+        assertTrue(restarted.validateToken(issued, user));
+    }
+
+    private JwtUtil newJwtUtil(String algorithm) {
+        return newJwtUtil(algorithm, InMemoryJwtSigningKeys.repository(), true);
+    }
+
+    private JwtUtil newJwtUtil(String algorithm, JwtSigningKeyRepository keyRepository, boolean acceptLegacyHmac) {
+        keyRing = new JwtKeyRing();
+        ReflectionTestUtils.setField(keyRing, "keyRepository", keyRepository);
+        ReflectionTestUtils.setField(keyRing, "secretString", SECRET);
+        ReflectionTestUtils.setField(keyRing, "jwtExpirationInMs", 60000L);
+        ReflectionTestUtils.setField(keyRing, "algorithm", algorithm);
+        ReflectionTestUtils.setField(keyRing, "publishAheadMs", 0L);
+        ReflectionTestUtils.setField(keyRing, "rotationIntervalMs", 86400000L);
+        ReflectionTestUtils.setField(keyRing, "acceptLegacyHmac", acceptLegacyHmac);
+        keyRing.init();
+
+        JwtUtil util = new JwtUtil();
+        ReflectionTestUtils.setField(util, "jwtExpirationInMs", 60000L);
+        ReflectionTestUtils.setField(util, "keyRing", keyRing);
+        util.init();
+        return util;
+    }
+}
@@ -0,0 +1,70 @@
+package com.backend.tessera.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StripedTokenBucketLimiterTest {
+
+    private AtomicLong clock;
+    private StripedTokenBucketLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicLong(0L);
+        // 3 tentativas, reabastecendo 3 tokens por minuto
+        limiter = new StripedTokenBucketLimiter(3, 3, 60000L, 8, clock::get);
+    }
+
+    @Test
+    void testRejectsAttemptsBeyondCapacity() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0L, limiter.tryAcquire("aluno"));
+        }
+
+        long waitNanos = limiter.tryAcquire("aluno");
+
+        assertTrue(waitNanos > 0, "A quarta tentativa deveria ser recusada");
+        assertEquals(TimeUnit.SECONDS.toNanos(20), waitNanos);
+    }
+
+    @Test
+    void testKeysAreIndependent() {
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("aluno");
+        }
+
+        assertEquals(0L, limiter.tryAcquire("professor"));
+    }
+
+    @Test
+    void testRefillsOverTime() {
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("aluno");
+        }
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(20));
+
+        assertEquals(0L, limiter.tryAcquire("aluno"));
+        assertTrue(limiter.tryAcquire("aluno") > 0);
+    }
+
+    @Test
+    void testSweepRemovesOnlyFullBuckets() {
+        limiter.tryAcquire("aluno");
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        limiter.tryAcquire("professor");
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+
+        assertEquals(1, limiter.sweep());
+        assertEquals(1, limiter.size());
+
+        // Depois de removido, o bucket é recriado cheio
+        assertEquals(0L, limiter.tryAcquire("aluno"));
+    }
+}
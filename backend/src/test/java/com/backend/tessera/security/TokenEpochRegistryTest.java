@@ -0,0 +1,80 @@
+package com.backend.tessera.security;
+
+import com.backend.tessera.repository.UserRepository;
+import com.backend.tessera.repository.UserRepository.TokenVersionView;
+import com.backend.tessera.repository.UserTombstoneRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class TokenEpochRegistryTest {
+
+    private UserRepository userRepository;
+    private UserTombstoneRepository userTombstoneRepository;
+    private TokenEpochRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = Mockito.mock(UserRepository.class);
+        userTombstoneRepository = Mockito.mock(UserTombstoneRepository.class);
+        registry = new TokenEpochRegistry();
+        ReflectionTestUtils.setField(registry, "userRepository", userRepository);
+        ReflectionTestUtils.setField(registry, "userTombstoneRepository", userTombstoneRepository);
+        ReflectionTestUtils.setField(registry, "jwtExpirationInMs", 86400000L);
+        ReflectionTestUtils.setField(registry, "resyncLookbackMs", 60000L);
+    }
+
+    @Test
+    void testOnlyTheFirstResyncLoadsEveryBumpedUser() {
+        Mockito.when(userRepository.findBumpedTokenVersions()).thenReturn(List.of(version(1L, 2L)));
+        Mockito.when(userRepository.findBumpedTokenVersionsUpdatedAfter(any())).thenReturn(List.of(version(2L, 1L)));
+
+        LocalDateTime beforeFirst = LocalDateTime.now();
+        registry.resync();
+        registry.resync();
+
+        verify(userRepository, times(1)).findBumpedTokenVersions();
+        // A consulta incremental parte do início da carga anterior, recuada pelo lookback
+        verify(userRepository).findBumpedTokenVersionsUpdatedAfter(argThat(since ->
+                !since.isBefore(beforeFirst.minusSeconds(60)) && since.isBefore(LocalDateTime.now().minusSeconds(59))));
+        assertTrue(registry.isRevoked(1L, 1L));
+        assertTrue(registry.isRevoked(2L, 0L));
+        assertFalse(registry.isRevoked(2L, 1L));
+    }
+
+    @Test
+    void testIncrementalResyncNeverLowersAKnownVersion() {
+        Mockito.when(userRepository.findBumpedTokenVersions()).thenReturn(List.of(version(1L, 3L)));
+        Mockito.when(userRepository.findBumpedTokenVersionsUpdatedAfter(any())).thenReturn(List.of(version(1L, 2L)));
+
+        registry.resync();
+        registry.resync();
+
+        assertTrue(registry.isRevoked(1L, 2L));
+    }
+
+    private static TokenVersionView version(Long id, Long tokenVersion) {
+        return new TokenVersionView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getTokenVersion() {
+                return tokenVersion;
+            }
+        };
+    }
+}
@@ -0,0 +1,131 @@
+package com.backend.tessera.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AuditJournalTest {
+
+    // Registros de teste têm 17 bytes de dados ("registro-00000001"); cabem 3 por segmento
+    private static final int RECORD_SIZE = AuditJournal.HEADER_SIZE + 17;
+    private static final int SEGMENT_SIZE = 3 * RECORD_SIZE;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testAppendedRecordsAreReadInOrder() throws IOException {
+        try (AuditJournal journal = AuditJournal.open(directory, SEGMENT_SIZE)) {
+            for (int i = 1; i <= 5; i++) {
+                assertEquals(i, journal.append(data(i)));
+            }
+
+            List<AuditJournal.Record> records = journal.read(0, 10);
+
+            assertEquals(5, records.size());
+            assertEquals("registro-00000003", text(records.get(2)));
+            assertEquals(List.of(4L, 5L), journal.read(3, 10).stream().map(AuditJournal.Record::getSeq).toList());
+            assertEquals(2, journal.read(1, 2).size());
+        }
+    }
+
+    @Test
+    void testDirectoryCannotBeOpenedTwice() throws IOException {
+        try (AuditJournal journal = AuditJournal.open(directory, SEGMENT_SIZE)) {
+            journal.append(data(1));
+
+            assertThrows(IOException.class, () -> AuditJournal.open(directory, SEGMENT_SIZE));
+        }
+
+        // Fechar libera o diretório
+        try (AuditJournal journal = AuditJournal.open(directory, SEGMENT_SIZE)) {
+            assertEquals(1, journal.getLastSeq());
+        }
+    }
+
+    @Test
+    void testReopenRecoversRecordsAndCheckpoint() throws IOException {
+        try (AuditJournal journal = AuditJournal.open(directory, SEGMENT_SIZE)) {
+            for (int i = 1; i <= 4; i++) {
+                journal.append(data(i));
+            }
+            journal.confirm(2);
+        }
+
+        try (AuditJournal journal = AuditJournal.open(directory, SEGMENT_SIZE)) {
+            assertEquals(2, journal.getCheckpoint());
+            assertEquals(4, journal.getLastSeq());
+            assertEquals(List.of(3L, 4L), journal.read(journal.getCheckpoint(), 10).stream()
+                    .map(AuditJournal.Record::getSeq).toList());
+            assertEquals(5, journal.append(data(5)));
+        }
+    }
+
+    @Test
+    void testTornRecordIsDiscardedOnRecovery() throws IOException {
+        try (AuditJournal journal = AuditJournal.open(directory, SEGMENT_SIZE)) {
+            journal.append(data(1));
+            journal.append(data(2));
+        }
+        // Corrompe um byte dos dados do segundo registro (simula uma escrita interrompida)
+        Path segment = segments().get(0);
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            long secondRecordData = RECORD_SIZE + AuditJournal.HEADER_SIZE;
+            file.seek(secondRecordData);
+            file.write('X');
+        }
+
+        try (AuditJournal journal = AuditJournal.open(directory, SEGMENT_SIZE)) {
+            assertEquals(1, journal.getLastSeq());
+            assertEquals(2, journal.append(data(9)));
+            List<AuditJournal.Record> records = journal.read(0, 10);
+            assertEquals(2, records.size());
+            assertEquals("registro-00000009", text(records.get(1)));
+        }
+    }
+
+    @Test
+    void testConfirmDeletesFullyConfirmedSegments() throws IOException {
+        try (AuditJournal journal = AuditJournal.open(directory, SEGMENT_SIZE)) {
+            for (int i = 1; i <= 7; i++) {
+                journal.append(data(i));
+            }
+            assertEquals(3, segments().size());
+
+            // O primeiro segmento (1-3) fica inteiro confirmado; o segundo (4-6) ainda tem pendências
+            journal.confirm(5);
+
+            assertEquals(2, segments().size());
+            assertEquals(List.of(6L, 7L), journal.read(5, 10).stream().map(AuditJournal.Record::getSeq).toList());
+
+            journal.confirm(7);
+            assertEquals(1, segments().size());
+            assertTrue(journal.read(7, 10).isEmpty());
+        }
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(".seg")).sorted().toList();
+        }
+    }
+
+    private static byte[] data(int i) {
+        return String.format("registro-%08d", i).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(AuditJournal.Record record) {
+        return new String(record.getData(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,117 @@
+package com.backend.tessera.service;
+
+import com.backend.tessera.model.AuditLog;
+import com.backend.tessera.repository.AuditLogRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "app.audit.batch-size=2",
+        "app.audit.flush-interval=200",
+        "app.audit.journal.dir=target/audit-test/${random.uuid}"
+})
+public class AuditLogWriterTests {
+
+    @Autowired
+    private AuditLogWriter auditLogWriter;
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void tearDown() {
+        auditLogRepository.deleteAll();
+    }
+
+    @Test
+    void testEventsAreWrittenInBackgroundAndCheckpointed() throws Exception {
+        // Dois eventos fecham um lote pelo tamanho; o terceiro é gravado pelo tempo
+        for (long userId = 1; userId <= 3; userId++) {
+            auditLogWriter.append(AuditLog.createApprovalLog("admin", userId, true));
+        }
+
+        awaitCount(3);
+        assertEquals(3, auditLogRepository.findByPerformedBy("admin").size());
+        AuditJournal journal = auditLogWriter.getJournal();
+        assertEquals(journal.getLastSeq(), journal.getCheckpoint());
+    }
+
+    @Test
+    void testRejectedEventIsQuarantinedAndCheckpointAdvances() throws Exception {
+        double quarantinedBefore = meterRegistry.counter("tessera.audit.events", "result", "quarantined").count();
+        AuditLog rejected = AuditLog.createApprovalLog("quarentena", 2L, true);
+        // details tem no máximo 1000 caracteres: o banco recusa o evento em qualquer tentativa
+        rejected.setDetails("x".repeat(1500));
+
+        auditLogWriter.append(AuditLog.createApprovalLog("quarentena", 1L, true));
+        auditLogWriter.append(rejected);
+        auditLogWriter.append(AuditLog.createApprovalLog("quarentena", 3L, true));
+
+        awaitCount(2);
+        AuditJournal journal = auditLogWriter.getJournal();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (journal.getCheckpoint() < journal.getLastSeq() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(journal.getLastSeq(), journal.getCheckpoint());
+        assertEquals(List.of(1L, 3L), auditLogRepository.findByPerformedBy("quarentena").stream()
+                .map(AuditLog::getTargetUserId).sorted().toList());
+        assertEquals(quarantinedBefore + 1,
+                meterRegistry.counter("tessera.audit.events", "result", "quarantined").count());
+    }
+
+    @Test
+    void testOnlyConnectionAndTransientErrorsAreRetried() {
+        assertTrue(AuditLogWriter.isTransient(new CannotGetJdbcConnectionException("sem conexão")));
+        assertTrue(AuditLogWriter.isTransient(new QueryTimeoutException("timeout")));
+        assertTrue(AuditLogWriter.isTransient(new CannotCreateTransactionException("sem conexão",
+                new SQLTransientConnectionException("pool esgotado"))));
+        assertFalse(AuditLogWriter.isTransient(new DataIntegrityViolationException("valor grande demais")));
+        assertFalse(AuditLogWriter.isTransient(new BadSqlGrammarException("insert", "INSERT", new SQLException())));
+    }
+
+    @Test
+    void testEventSurvivesJournalEncoding() {
+        AuditLog event = AuditLog.createStatusChangeLog("admin", null, false);
+        event.setDetails("linha 1\nlinha 2\tcom tab");
+
+        AuditLog decoded = AuditLogWriter.decode(AuditLogWriter.encode(event));
+
+        assertEquals(event.getAction(), decoded.getAction());
+        assertEquals(event.getPerformedBy(), decoded.getPerformedBy());
+        assertEquals(event.getTimestamp(), decoded.getTimestamp());
+        assertEquals(event.getDetails(), decoded.getDetails());
+        assertNull(decoded.getTargetUserId());
+    }
+
+    private void awaitCount(long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (auditLogRepository.count() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.backend.tessera.service;
+
+import com.backend.tessera.dto.BroadcastRequest;
+import com.backend.tessera.model.AccountStatus;
+import com.backend.tessera.model.BroadcastJob;
+import com.backend.tessera.model.Role;
+import com.backend.tessera.model.User;
+import com.backend.tessera.repository.BroadcastJobRepository;
+import com.backend.tessera.repository.EmailOutboxRepository;
+import com.backend.tessera.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+@TestPropertySource(properties = {
+        // Envio na thread do teste (mesma transação) e lotes pequenos para exercitar vários checkpoints
+        "app.broadcast.threads=1",
+        "app.broadcast.page-size=2"
+})
+public class BroadcastServiceTests {
+
+    @Autowired
+    private BroadcastService broadcastService;
+
+    @Autowired
+    private BroadcastJobRepository jobRepository;
+
+    @Autowired
+    private EmailOutboxRepository outboxRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private long lastProfessorId;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 1; i <= 3; i++) {
+            lastProfessorId = saveUser("prof" + i, Role.PROFESSOR, AccountStatus.ATIVO).getId();
+        }
+        saveUser("profpendente", Role.PROFESSOR, AccountStatus.PENDENTE);
+        saveUser("alunobroadcast", Role.ALUNO, AccountStatus.ATIVO);
+    }
+
+    @Test
+    void testCreateCountsOnlyActiveUsersMatchingFilters() {
+        BroadcastJob job = broadcastService.create(request(), "admin");
+
+        assertEquals(3, job.getTotalRecipients());
+        assertEquals(BroadcastJob.Status.PENDING, job.getStatus());
+    }
+
+    @Test
+    void testRunProcessesEveryRecipientAndCheckpoints() {
+        BroadcastJob job = broadcastService.create(request(), "admin");
+
+        // Não há servidor SMTP nos testes: cada envio falha e é encaminhado à outbox
+        broadcastService.run(job.getId());
+
+        entityManager.clear();
+        BroadcastJob finished = jobRepository.findById(job.getId()).orElseThrow();
+        assertEquals(BroadcastJob.Status.COMPLETED, finished.getStatus());
+        assertEquals(lastProfessorId, finished.getLastUserId());
+        assertEquals(3, finished.getSentCount() + finished.getFailedCount());
+        assertEquals(finished.getFailedCount(), outboxRepository.count());
+    }
+
+    @Test
+    void testCancelledJobIsNotRun() {
+        BroadcastJob job = broadcastService.create(request(), "admin");
+        broadcastService.cancel(job.getId());
+
+        broadcastService.run(job.getId());
+
+        entityManager.clear();
+        BroadcastJob cancelled = jobRepository.findById(job.getId()).orElseThrow();
+        assertEquals(BroadcastJob.Status.CANCELLED, cancelled.getStatus());
+        assertEquals(0, cancelled.getLastUserId());
+        assertEquals(0, outboxRepository.count());
+        assertThrows(IllegalArgumentException.class, () -> broadcastService.cancel(job.getId()));
+    }
+
+    @Test
+    void testStaleRunCannotCheckpointAfterTakeover() {
+        BroadcastJob job = broadcastService.create(request(), "admin");
+        LocalDateTime start = LocalDateTime.now().minusMinutes(30);
+        assertEquals(1, jobRepository.claim(job.getId(), "execucao-antiga", start, start.minusMinutes(5)));
+
+        // O heartbeat da primeira execução venceu e outra instância retomou o job
+        LocalDateTime now = LocalDateTime.now();
+        assertEquals(1, jobRepository.claim(job.getId(), "execucao-nova", now, now.minusMinutes(5)));
+
+        assertEquals(0, jobRepository.checkpoint(job.getId(), "execucao-antiga", lastProfessorId, 3, 0, now));
+        assertEquals(0, jobRepository.heartbeat(job.getId(), "execucao-antiga", now));
+        assertEquals(0, jobRepository.finishClaimed(job.getId(), "execucao-antiga", BroadcastJob.Status.FAILED, now));
+        assertEquals(1, jobRepository.checkpoint(job.getId(), "execucao-nova", lastProfessorId, 3, 0, now));
+
+        entityManager.clear();
+        BroadcastJob resumed = jobRepository.findById(job.getId()).orElseThrow();
+        assertEquals(BroadcastJob.Status.RUNNING, resumed.getStatus());
+        assertEquals(3, resumed.getSentCount());
+    }
+
+    private BroadcastRequest request() {
+        return new BroadcastRequest("Aviso", "Reunião de professores na sexta.", "PROFESSOR", "Broadcast Inst");
+    }
+
+    private User saveUser(String username, Role role, AccountStatus status) {
+        User user = new User(username, username, username + "@example.com", "hash", "Broadcast Inst", role);
+        user.setStatus(status);
+        return userRepository.save(user);
+    }
+}
@@ -0,0 +1,166 @@
+package com.backend.tessera.service;
+
+import com.backend.tessera.model.AccountStatus;
+import com.backend.tessera.model.EmailOutboxMessage;
+import com.backend.tessera.model.Role;
+import com.backend.tessera.model.User;
+import com.backend.tessera.model.VerificationToken;
+import com.backend.tessera.repository.EmailOutboxRepository;
+import com.backend.tessera.repository.UserRepository;
+import com.backend.tessera.repository.VerificationTokenRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+public class EmailOutboxDispatcherTests {
+
+    @Autowired
+    private PasswordResetService passwordResetService;
+
+    @Autowired
+    private EmailOutboxDispatcher dispatcher;
+
+    @Autowired
+    private EmailOutboxRepository outboxRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private VerificationTokenRepository tokenRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User("Outbox User", "outboxuser", "outboxuser@example.com", "hash", "Test Inst", Role.ALUNO);
+        user.setStatus(AccountStatus.ATIVO);
+        userRepository.save(user);
+    }
+
+    @Test
+    void testResetRequestWritesOutboxInSameTransaction() {
+        passwordResetService.requestPasswordReset("outboxuser@example.com");
+
+        List<EmailOutboxMessage> messages = outboxRepository.findAll();
+        assertEquals(1, messages.size());
+        assertEquals("outboxuser@example.com", messages.get(0).getRecipient());
+        assertEquals(EmailOutboxMessage.Status.PENDING, messages.get(0).getStatus());
+    }
+
+    @Test
+    void testFailedSendIsRescheduledWithBackoff() {
+        passwordResetService.requestPasswordReset("outboxuser@example.com");
+
+        // Não há servidor SMTP nos testes: o envio falha e a mensagem é reagendada
+        LocalDateTime before = LocalDateTime.now();
+        dispatcher.dispatch();
+        LocalDateTime after = LocalDateTime.now();
+
+        // markFailedAttempt é um UPDATE em lote; sem limpar o contexto, a entidade ainda teria o lease de claimBatch
+        entityManager.clear();
+        EmailOutboxMessage message = outboxRepository.findAll().get(0);
+        assertEquals(1, message.getAttempts());
+        assertEquals(EmailOutboxMessage.Status.PENDING, message.getStatus());
+        // O próximo envio segue o backoff da primeira tentativa, bem antes do fim do lease
+        assertTrue(message.getNextAttemptAt().isAfter(before));
+        assertTrue(message.getNextAttemptAt().isBefore(after.plus(dispatcher.backoff(1)).plusSeconds(1)),
+                "nextAttemptAt deveria respeitar o backoff, não o lease: " + message.getNextAttemptAt());
+    }
+
+    @Test
+    void testRepeatedResetRequestsWithinWindowAreCoalesced() {
+        passwordResetService.requestPasswordReset("outboxuser@example.com");
+        passwordResetService.requestPasswordReset("outboxuser@example.com");
+        passwordResetService.requestPasswordReset("outboxuser@example.com");
+
+        assertEquals(1, outboxRepository.count());
+        assertEquals(1, tokenRepository.count());
+    }
+
+    @Test
+    void testResetRequestAfterWindowIssuesNewToken() {
+        passwordResetService.requestPasswordReset("outboxuser@example.com");
+        VerificationToken first = tokenRepository.findAll().get(0);
+        first.setCreatedAt(LocalDateTime.now().minusMinutes(5));
+        tokenRepository.saveAndFlush(first);
+
+        passwordResetService.requestPasswordReset("outboxuser@example.com");
+
+        assertEquals(2, outboxRepository.count());
+        // A invalidação é um UPDATE em lote; recarregar do banco em vez do contexto de persistência
+        entityManager.clear();
+        assertTrue(tokenRepository.findById(first.getId()).orElseThrow().isUsed(), "O token anterior deve ser invalidado");
+    }
+
+    @Test
+    void testDispatchTriggerBurstNeverThrows() {
+        // afterCommit chama dispatchAsync depois que a transação já foi confirmada: uma rajada não pode falhar
+        assertDoesNotThrow(() -> {
+            for (int i = 0; i < 1000; i++) {
+                dispatcher.dispatchAsync();
+            }
+        });
+    }
+
+    @Test
+    void testDeferralsOfSameDomainAreSpreadByRefillInterval() {
+        // 60 tokens por minuto: um envio adiado por segundo, em vez de todos no próximo token
+        long nextToken = Duration.ofMillis(500).toNanos();
+        Duration first = dispatcher.deferralDelay("spread.example.com", nextToken);
+        Duration second = dispatcher.deferralDelay("spread.example.com", nextToken);
+        Duration third = dispatcher.deferralDelay("spread.example.com", nextToken);
+
+        assertTrue(first.compareTo(Duration.ofMillis(500)) <= 0);
+        assertTrue(second.compareTo(Duration.ofMillis(1400)) > 0 && second.compareTo(Duration.ofMillis(1500)) <= 0,
+                "segundo adiamento: " + second);
+        assertTrue(third.compareTo(Duration.ofMillis(2400)) > 0 && third.compareTo(Duration.ofMillis(2500)) <= 0,
+                "terceiro adiamento: " + third);
+        // Outro domínio não espera pela fila deste
+        assertTrue(dispatcher.deferralDelay("other.example.com", nextToken).compareTo(Duration.ofMillis(500)) <= 0);
+    }
+
+    @Test
+    void testDomainKeyIsCaseInsensitive() {
+        assertEquals("example.com", EmailOutboxDispatcher.domainOf("Aluno@Example.COM"));
+    }
+
+    @Test
+    void testBackoffGrowsExponentiallyUpToMax() {
+        assertEquals(Duration.ofSeconds(2), dispatcher.backoff(1));
+        assertEquals(Duration.ofSeconds(4), dispatcher.backoff(2));
+        assertEquals(Duration.ofSeconds(16), dispatcher.backoff(4));
+        assertEquals(Duration.ofHours(1), dispatcher.backoff(20));
+    }
+
+    @Test
+    void testRetriesSpanAtLeastTwoHoursEvenWithJitter() {
+        // 2s..1h em 14 intervalos somam ~4h08; com todo o jitter para baixo, ~2h04
+        Duration window = dispatcher.minimumRetryWindow();
+        assertTrue(window.compareTo(Duration.ofHours(2)) >= 0, "janela de retentativas curta demais: " + window);
+    }
+
+    @Test
+    void testJitterStaysWithinConfiguredFraction() {
+        for (int i = 0; i < 100; i++) {
+            Duration delay = dispatcher.withJitter(Duration.ofSeconds(8));
+            assertTrue(delay.compareTo(Duration.ofSeconds(4)) >= 0 && delay.compareTo(Duration.ofSeconds(8)) <= 0);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.backend.tessera.service;
+
+import com.backend.tessera.service.EmailTemplateEngine.RenderedEmail;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EmailTemplateEngineTest {
+
+    private EmailTemplateEngine engine;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        engine = new EmailTemplateEngine();
+        engine.init();
+    }
+
+    @Test
+    void testRendersBundledTemplateWithEscapedUrl() {
+        RenderedEmail email = engine.render("password-reset", new Locale("pt", "BR"),
+                Map.of("url", "http://localhost:4200/auth/reset-password?token=abc&x=1"));
+        String body = new String(email.getBody(), StandardCharsets.UTF_8);
+
+        assertEquals("Redefinição de Senha - Sistema Acadêmico", email.getSubject());
+        assertTrue(body.contains("href='http://localhost:4200/auth/reset-password?token=abc&amp;x=1'"));
+        assertFalse(body.contains("{{"), "Nenhuma variável deveria restar no corpo");
+        assertTrue(body.contains("Olá,"));
+    }
+
+    @Test
+    void testCompileSplitsStaticPartsAndVariables() {
+        EmailTemplateEngine.CompiledTemplate template = EmailTemplateEngine.compile("teste",
+                "Subject: Assunto\n\n<p>{{nome}} - {{ url }}</p>");
+
+        byte[] body = template.render(Map.of("nome", "<Ana>", "url", "x"));
+
+        assertEquals("<p>&lt;Ana&gt; - x</p>", new String(body, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testValuesAreEncodedAsUtf8LikeStringGetBytes() {
+        EmailTemplateEngine.CompiledTemplate template = EmailTemplateEngine.compile("teste",
+                "Subject: Assunto\n\n<p>{{nome}}</p>");
+        String value = "João & \"Zoë\" ✓ \uD83D\uDE00 \uD800 '";
+
+        byte[] body = template.render(Map.of("nome", value));
+
+        String expected = "<p>João &amp; &quot;Zoë&quot; ✓ \uD83D\uDE00 \uD800 &#39;</p>";
+        assertArrayEquals(expected.getBytes(StandardCharsets.UTF_8), body);
+    }
+
+    @Test
+    void testUnknownTemplateIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> engine.render("inexistente", Locale.ROOT, Map.of()));
+    }
+}
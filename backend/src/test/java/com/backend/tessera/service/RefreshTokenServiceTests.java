@@ -0,0 +1,79 @@
+package com.backend.tessera.service;
+
+import com.backend.tessera.model.AccountStatus;
+import com.backend.tessera.model.Role;
+import com.backend.tessera.model.User;
+import com.backend.tessera.repository.RefreshTokenRepository;
+import com.backend.tessera.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = "app.session.max-per-user=2")
+public class RefreshTokenServiceTests {
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User("Concurrent User", "concurrentuser", "concurrentuser@example.com", "hash", "Test Inst", Role.ALUNO);
+        user.setStatus(AccountStatus.ATIVO);
+        userRepository.save(user);
+    }
+
+    @AfterEach
+    void tearDown() {
+        refreshTokenService.deleteByUserId(user.getId());
+        userRepository.delete(user);
+    }
+
+    @Test
+    void testConcurrentLoginsDoNotExceedSessionLimit() throws Exception {
+        int logins = 6;
+        ExecutorService executor = Executors.newFixedThreadPool(logins);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < logins; i++) {
+                String userAgent = "Navegador " + i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return refreshTokenService.createRefreshToken(user, userAgent, "127.0.0.1");
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(2, refreshTokenRepository.findActiveSessionIds(user.getId(), LocalDateTime.now()).size());
+    }
+}
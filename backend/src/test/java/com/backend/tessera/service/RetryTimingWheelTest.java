@@ -0,0 +1,86 @@
+package com.backend.tessera.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RetryTimingWheelTest {
+
+    private AtomicLong clock;
+    private List<String> fired;
+    private RetryTimingWheel<String> wheel;
+
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicLong(0L);
+        fired = new ArrayList<>();
+        // Ticks de 100 ms, 8 posições (uma volta = 800 ms), até 3 itens
+        wheel = new RetryTimingWheel<>("test-wheel", 100, 8, 3, fired::addAll, clock::get);
+    }
+
+    @Test
+    void testItemFiresAtItsDeadlineAndNotBefore() {
+        wheel.schedule("a", Duration.ofMillis(250));
+        wheel.schedule("b", Duration.ofMillis(500));
+
+        advanceTo(200);
+        assertTrue(fired.isEmpty());
+
+        advanceTo(300);
+        assertEquals(List.of("a"), fired);
+
+        advanceTo(500);
+        assertEquals(List.of("a", "b"), fired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void testDeadlineBeyondOneRevolutionWaitsForItsRound() {
+        wheel.schedule("distante", Duration.ofMillis(1300));
+
+        // Em 500 ms a roda passa pela posição do item (1300 mod 800), mas o prazo ainda não chegou
+        advanceTo(500);
+        advanceTo(900);
+        assertTrue(fired.isEmpty());
+
+        advanceTo(1300);
+        assertEquals(List.of("distante"), fired);
+    }
+
+    @Test
+    void testRejectsItemsBeyondCapacity() {
+        assertTrue(wheel.schedule("a", Duration.ofSeconds(1)));
+        assertTrue(wheel.schedule("b", Duration.ofSeconds(1)));
+        assertTrue(wheel.schedule("c", Duration.ofSeconds(1)));
+
+        assertFalse(wheel.schedule("d", Duration.ofSeconds(1)), "A roda cheia deveria recusar o item");
+
+        advanceTo(1000);
+        assertEquals(3, fired.size());
+        assertTrue(wheel.schedule("d", Duration.ofSeconds(1)), "Itens vencidos liberam capacidade");
+    }
+
+    @Test
+    void testClockJumpExpiresEverythingDue() {
+        wheel.schedule("a", Duration.ofMillis(100));
+        wheel.schedule("b", Duration.ofMillis(700));
+
+        advanceTo(5000);
+
+        assertEquals(2, fired.size());
+    }
+
+    private void advanceTo(long millis) {
+        clock.set(TimeUnit.MILLISECONDS.toNanos(millis));
+        wheel.advance();
+    }
+}
@@ -0,0 +1,111 @@
+package com.backend.tessera.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Servidor SMTP mínimo em processo, que aceita e descarta as mensagens.
+ *
+ * connectDelayMs atrasa a saudação de cada nova conexão para simular o custo de estabelecer a sessão
+ * (TCP + TLS + autenticação) de um servidor real. Destinatários com "recusado" no endereço são rejeitados
+ * (550), para exercitar o tratamento de erro do cliente. Usado pelo SmtpTransportPoolTest e pelo
+ * SmtpDeliveryBenchmark.
+ */
+public final class SmtpStandIn implements AutoCloseable {
+    private final ServerSocket serverSocket;
+    private final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "smtp-standin");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final long connectDelayMs;
+    private final AtomicLong connections = new AtomicLong();
+    private final AtomicLong messages = new AtomicLong();
+
+    public SmtpStandIn(long connectDelayMs) throws IOException {
+        this.connectDelayMs = connectDelayMs;
+        this.serverSocket = new ServerSocket(0, 128, InetAddress.getLoopbackAddress());
+        executor.execute(this::acceptLoop);
+    }
+
+    public int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    public long connections() {
+        return connections.get();
+    }
+
+    public long messages() {
+        return messages.get();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                connections.incrementAndGet();
+                executor.execute(() -> handle(socket));
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void handle(Socket socket) {
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+             OutputStream out = socket.getOutputStream()) {
+            if (connectDelayMs > 0) {
+                Thread.sleep(connectDelayMs);
+            }
+            reply(out, "220 standin ESMTP");
+            String line;
+            while ((line = in.readLine()) != null) {
+                String command = line.length() >= 4 ? line.substring(0, 4).toUpperCase() : line.toUpperCase();
+                switch (command) {
+                    case "EHLO", "HELO" -> reply(out, "250 standin");
+                    case "RCPT" -> reply(out, line.contains("recusado") ? "550 caixa inexistente" : "250 OK");
+                    case "DATA" -> {
+                        reply(out, "354 fim com <CRLF>.<CRLF>");
+                        while ((line = in.readLine()) != null && !line.equals(".")) {
+                            // Corpo descartado
+                        }
+                        messages.incrementAndGet();
+                        reply(out, "250 OK");
+                    }
+                    case "QUIT" -> {
+                        reply(out, "221 tchau");
+                        return;
+                    }
+                    default -> reply(out, "250 OK");
+                }
+            }
+        } catch (IOException e) {
+            // Cliente encerrou a conexão
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void reply(OutputStream out, String line) throws IOException {
+        out.write((line + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        executor.shutdownNow();
+    }
+}
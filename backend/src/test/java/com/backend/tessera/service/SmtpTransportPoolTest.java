@@ -0,0 +1,120 @@
+package com.backend.tessera.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SmtpTransportPoolTest {
+
+    private SmtpStandIn server;
+    private JavaMailSenderImpl mailSender;
+    private SimpleMeterRegistry meterRegistry;
+    private SmtpTransportPool pool;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new SmtpStandIn(0);
+        mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("127.0.0.1");
+        mailSender.setPort(server.port());
+        meterRegistry = new SimpleMeterRegistry();
+
+        // Uma conexão, reciclada a cada 2 mensagens; um borrow preso falha em 1 s em vez de travar o teste
+        pool = new SmtpTransportPool();
+        ReflectionTestUtils.setField(pool, "mailSender", mailSender);
+        ReflectionTestUtils.setField(pool, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(pool, "size", 1);
+        ReflectionTestUtils.setField(pool, "maxMessagesPerConnection", 2);
+        ReflectionTestUtils.setField(pool, "idleTimeoutMs", 60000L);
+        ReflectionTestUtils.setField(pool, "validateAfterMs", 5000L);
+        ReflectionTestUtils.setField(pool, "borrowTimeoutMs", 1000L);
+        pool.init();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        pool.shutdown();
+        server.close();
+    }
+
+    @Test
+    void testConnectionIsReusedUntilMaxMessages() throws MessagingException {
+        for (int i = 0; i < 5; i++) {
+            pool.send(message("aluno@tessera.local"));
+        }
+
+        assertEquals(5, server.messages());
+        // 2 + 2 + 1 mensagens
+        assertEquals(3, server.connections());
+        assertEquals(3.0, meterRegistry.counter("tessera.mail.transport.opened").count());
+    }
+
+    @Test
+    void testConnectionIsDiscardedAfterError() throws MessagingException {
+        pool.send(message("aluno@tessera.local"));
+        assertEquals(1.0, idleConnections());
+
+        assertThrows(SendFailedException.class, () -> pool.send(message("recusado@tessera.local")));
+        assertEquals(0.0, idleConnections());
+
+        // Com size = 1, o próximo envio só consegue uma conexão se a permissão do envio que falhou foi devolvida
+        pool.send(message("aluno@tessera.local"));
+        assertEquals(2, server.connections());
+        assertEquals(2, server.messages());
+    }
+
+    @Test
+    void testPermitIsReleasedWhenConnectFails() throws IOException {
+        server.close();
+
+        for (int i = 0; i < 3; i++) {
+            MessagingException e = assertThrows(MessagingException.class, () -> pool.send(message("aluno@tessera.local")));
+            assertFalse(e.getMessage().startsWith("Tempo esgotado"),
+                    "a permissão da tentativa anterior não foi devolvida: " + e.getMessage());
+        }
+    }
+
+    @Test
+    void testIdleConnectionsAreEvicted() throws MessagingException, InterruptedException {
+        pool.send(message("aluno@tessera.local"));
+
+        // Ociosa há menos que idle-timeout: continua no pool
+        pool.evictIdle();
+        assertEquals(1.0, idleConnections());
+
+        ReflectionTestUtils.setField(pool, "idleTimeoutMs", 10L);
+        Thread.sleep(50);
+        pool.evictIdle();
+        assertEquals(0.0, idleConnections());
+
+        pool.send(message("aluno@tessera.local"));
+        assertEquals(2, server.connections());
+    }
+
+    private double idleConnections() {
+        return meterRegistry.get("tessera.mail.transport.idle").gauge().value();
+    }
+
+    private MimeMessage message(String to) throws MessagingException {
+        MimeMessage message = pool.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+        helper.setFrom("noreply@tessera.local");
+        helper.setTo(to);
+        helper.setSubject("Assunto");
+        helper.setText("<p>Olá</p>", true);
+        return message;
+    }
+}
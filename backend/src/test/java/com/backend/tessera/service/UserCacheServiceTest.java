@@ -0,0 +1,87 @@
+package com.backend.tessera.service;
+
+import com.backend.tessera.model.Role;
+import com.backend.tessera.model.User;
+import com.backend.tessera.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class UserCacheServiceTest {
+
+    private UserRepository userRepository;
+    private UserCacheService userCacheService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User("cacheuser", "hash", Role.ALUNO);
+        userRepository = Mockito.mock(UserRepository.class);
+        userCacheService = new UserCacheService();
+        ReflectionTestUtils.setField(userCacheService, "userRepository", userRepository);
+        ReflectionTestUtils.setField(userCacheService, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(userCacheService, "maxSize", 100L);
+        ReflectionTestUtils.setField(userCacheService, "ttlMs", 300000L);
+        ReflectionTestUtils.setField(userCacheService, "negativeMaxSize", 100L);
+        ReflectionTestUtils.setField(userCacheService, "negativeTtlMs", 30000L);
+        userCacheService.init();
+    }
+
+    @Test
+    void testLookupIsCachedCaseInsensitively() {
+        Mockito.when(userRepository.findByUsername(Mockito.anyString())).thenReturn(Optional.of(user));
+
+        userCacheService.findByUsername("cacheuser");
+        assertTrue(userCacheService.findByUsername("CacheUser").isPresent());
+
+        verify(userRepository, times(1)).findByUsername(Mockito.anyString());
+    }
+
+    @Test
+    void testReadRacingWithEvictIsNotPublished() {
+        // A alteração (e seu evict) acontece enquanto o leitor ainda tem a versão antiga em mãos
+        Mockito.when(userRepository.findByUsername("cacheuser")).thenAnswer(invocation -> {
+            userCacheService.evict("cacheuser");
+            return Optional.of(user);
+        }).thenReturn(Optional.of(user));
+
+        userCacheService.findByUsername("cacheuser");
+        userCacheService.findByUsername("cacheuser");
+
+        verify(userRepository, times(2)).findByUsername("cacheuser");
+    }
+
+    @Test
+    void testChangesMadeByOtherInstancesAreEvicted() {
+        ReflectionTestUtils.setField(userCacheService, "syncLookbackMs", 60000L);
+        Mockito.when(userRepository.findByUsername("cacheuser")).thenReturn(Optional.of(user));
+        userCacheService.findByUsername("cacheuser");
+
+        // Outra instância trocou a senha: a linha aparece entre as alteradas desde a última leitura
+        Mockito.when(userRepository.findUsernamesUpdatedAfter(Mockito.any())).thenReturn(List.of("CacheUser"));
+        userCacheService.evictChangedElsewhere();
+        userCacheService.findByUsername("cacheuser");
+
+        verify(userRepository, times(2)).findByUsername("cacheuser");
+    }
+
+    @Test
+    void testEvictClearsNegativeEntry() {
+        Mockito.when(userRepository.findByUsername("cacheuser")).thenReturn(Optional.empty())
+                .thenReturn(Optional.of(user));
+
+        userCacheService.findByUsername("cacheuser");
+        userCacheService.evict("CacheUser");
+
+        assertTrue(userCacheService.findByUsername("cacheuser").isPresent());
+    }
+}